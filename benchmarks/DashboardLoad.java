@@ -0,0 +1,178 @@
+// Admin dashboard load test without k6: the same user model as dashboard_load_test.js, driven from a
+// single-file Java program (JDK 21, no dependencies). Used where k6 is not installed; the k6 script
+// stays the reference for staging runs.
+//
+// 1. Start a stand-in for the service-provider API that answers after a fixed latency:
+//      java benchmarks/DashboardLoad.java stub 9099 200
+// 2. Start the service once per mode against it (and a scratch database):
+//      SERVICEPROVIDER_API_URL=http://localhost:9099 SPRING_THREADS_VIRTUAL_ENABLED=false java -jar target/admin_service-0.0.1-SNAPSHOT.jar
+// 3. Drive it (arguments: base url, users, ramp seconds, hold seconds, mode label):
+//      java benchmarks/DashboardLoad.java run http://localhost:8080 1000 30 90 platform
+//
+// Each user loads the six dashboard requests in parallel, then pauses 5-10 s. Latencies are recorded
+// during the hold phase only and reported per group ("proxy" / "database") with failures and 503s.
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class DashboardLoad {
+
+    private static final String[][] REQUESTS = {
+            {"proxy", "/admin/auth/promotions/all"},
+            {"proxy", "/admin/auth/all_service"},
+            {"database", "/admin/auth/commissions/statistics"},
+            {"database", "/admin/auth/commissions?limit=50"},
+            {"database", "/admin/auth/tripfluencer-points/statistics"},
+            {"database", "/admin/auth/redemptions/statistics"},
+    };
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("stub")) {
+            stub(Integer.parseInt(args[1]), Long.parseLong(args[2]));
+        } else if (args.length > 0 && args[0].equals("run")) {
+            run(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]), args[5]);
+        } else {
+            System.err.println("usage: DashboardLoad stub <port> <latencyMs> | run <baseUrl> <users> <rampSec> <holdSec> <mode>");
+            System.exit(2);
+        }
+    }
+
+    private static void stub(int port, long latencyMs) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = (path.endsWith("/all_service") ? "{\"providers\":[]}" : "[]").getBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        System.out.println("Service-provider stub on :" + port + " answering after " + latencyMs + " ms");
+    }
+
+    private static void run(String baseUrl, int users, int rampSec, int holdSec, String mode) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String token = login(client, baseUrl);
+
+        Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+        AtomicLong requests = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong busy = new AtomicLong();
+
+        long start = System.nanoTime();
+        long holdStart = start + Duration.ofSeconds(rampSec).toNanos();
+        long end = holdStart + Duration.ofSeconds(holdSec).toNanos();
+
+        try (var usersExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < users; u++) {
+                long startAt = start + Duration.ofSeconds(rampSec).toNanos() * u / users;
+                usersExecutor.submit(() -> {
+                    sleepUntil(startAt);
+                    while (System.nanoTime() < end) {
+                        List<CompletableFuture<Void>> batch = new ArrayList<>();
+                        for (String[] request : REQUESTS) {
+                            long sent = System.nanoTime();
+                            HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + request[1]))
+                                    .header("Authorization", "Bearer " + token)
+                                    .timeout(Duration.ofSeconds(60))
+                                    .GET().build();
+                            batch.add(client.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
+                                    .handle((response, error) -> {
+                                        if (sent < holdStart) {
+                                            return null;
+                                        }
+                                        requests.incrementAndGet();
+                                        latencies.computeIfAbsent(request[0], g -> Collections.synchronizedList(new ArrayList<>()))
+                                                .add((System.nanoTime() - sent) / 1_000_000);
+                                        if (error != null || response.statusCode() != 200) {
+                                            failed.incrementAndGet();
+                                        }
+                                        if (response != null && response.statusCode() == 503) {
+                                            busy.incrementAndGet();
+                                        }
+                                        return null;
+                                    }));
+                        }
+                        CompletableFuture.allOf(batch.toArray(CompletableFuture[]::new)).join();
+                        sleepMillis(5000 + ThreadLocalRandom.current().nextLong(5000));
+                    }
+                    return null;
+                });
+            }
+        }
+
+        System.out.printf("%s threads, %d users, %d s hold: %d requests, failed %.2f%%, 503s %d%n",
+                mode, users, holdSec, requests.get(), 100.0 * failed.get() / Math.max(1, requests.get()), busy.get());
+        for (String group : List.of("proxy", "database")) {
+            List<Long> sorted = new ArrayList<>(latencies.getOrDefault(group, List.of()));
+            Collections.sort(sorted);
+            System.out.printf("  %-8s p50 %5d ms  p95 %5d ms  p99 %5d ms  max %5d ms%n", group,
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+        }
+    }
+
+    private static String login(HttpClient client, String baseUrl) throws Exception {
+        client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/admin/auth/setup"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/admin/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"admin@serviceproviders.com\",\"password\":\"admin123\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"").matcher(response.body());
+        if (!matcher.find()) {
+            throw new IllegalStateException("Login failed: " + response.statusCode() + " " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    private static long percentile(List<Long> sorted, int p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        sleepMillis((nanoTime - System.nanoTime()) / 1_000_000);
+    }
+
+    private static void sleepMillis(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
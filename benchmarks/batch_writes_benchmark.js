@@ -0,0 +1,110 @@
+// Write-path round-trip benchmark: createCommission, bulk settings updates and points awarding.
+//
+// Compares database round trips before and after the switch to pooled sequence ids and Hibernate JDBC
+// batching. Run it against a staging instance (never production) started with the sql-log profile,
+// once on the previous build and once on this one:
+//
+//   psql -c 'SELECT pg_stat_statements_reset()'
+//   k6 run -e BASE_URL=http://localhost:8080 -e TOKEN=<admin jwt> -e USER_ID=<tripfluencer user id> \
+//       benchmarks/batch_writes_benchmark.js
+//   psql -f benchmarks/batch_writes_round_trips.sql
+//
+// The sql-log profile also logs Hibernate's per-session statistics ("N JDBC statements executed",
+// "N JDBC batches executed"). Per request:
+//   createCommission      unchanged: a plain INSERT instead of INSERT ... RETURNING, one nextval per 50
+//   bulk settings update  previously one SELECT + one UPDATE per tier; now one SELECT and one UPDATE batch
+//   points add            unchanged ledger insert (points_ledger stays on IDENTITY), shown for reference
+// The round trips measured for each path, before and after, are in batch_writes_round_trips.sql.
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const TOKEN = __ENV.TOKEN;
+const USER_ID = Number(__ENV.USER_ID);
+const ITERATIONS = Number(__ENV.ITERATIONS || 1000);
+const VUS = Number(__ENV.VUS || 10);
+
+const createCommissionLatency = new Trend('create_commission_latency', true);
+const bulkPointSettingsLatency = new Trend('bulk_point_settings_latency', true);
+const bulkCommissionSettingsLatency = new Trend('bulk_commission_settings_latency', true);
+const addPointsLatency = new Trend('add_points_latency', true);
+
+export const options = {
+    scenarios: {
+        create_commission: {
+            executor: 'shared-iterations',
+            exec: 'createCommission',
+            vus: VUS,
+            iterations: ITERATIONS,
+        },
+        bulk_settings: {
+            executor: 'shared-iterations',
+            exec: 'bulkUpdateSettings',
+            vus: 1,
+            iterations: Math.max(1, Math.floor(ITERATIONS / 10)),
+        },
+        award_points: {
+            executor: 'shared-iterations',
+            exec: 'awardPoints',
+            vus: VUS,
+            iterations: ITERATIONS,
+        },
+    },
+    thresholds: {
+        checks: ['rate==1.0'],
+    },
+};
+
+const headers = {
+    Authorization: `Bearer ${TOKEN}`,
+    'Content-Type': 'application/json',
+};
+
+const RUN_ID = Date.now();
+
+export function createCommission() {
+    const body = {
+        serviceProvider: `Benchmark Provider ${__VU}`,
+        providerType: 'HOTEL',
+        amount: 125.00,
+        percentage: 12.5,
+        date: '2025-01-15',
+        transactionId: `BENCH-${RUN_ID}-${__VU}-${__ITER}`,
+        revenue: 1000.00,
+        month: '2025-01',
+    };
+    const res = http.post(`${BASE_URL}/admin/auth/commissions`, JSON.stringify(body), { headers });
+    createCommissionLatency.add(res.timings.duration);
+    check(res, { 'commission created': (r) => r.status === 200 || r.status === 201 });
+}
+
+export function bulkUpdateSettings() {
+    // Writes the current values back, so the run leaves the settings as they were
+    const points = http.get(`${BASE_URL}/admin/auth/points/settings`, { headers }).json();
+    const pointsBody = (points.settings || points).map((s) => ({
+        tierName: s.tierName,
+        pointsPerMilestone: s.pointsPerMilestone,
+    }));
+    let res = http.put(`${BASE_URL}/admin/auth/points/settings/bulk`, JSON.stringify(pointsBody), { headers });
+    bulkPointSettingsLatency.add(res.timings.duration);
+    check(res, { 'point settings updated': (r) => r.status === 200 });
+
+    const commission = http.get(`${BASE_URL}/admin/auth/commissions/settings`, { headers }).json();
+    const rates = commission.settings || commission;
+    const commissionBody = Object.keys(rates).map((providerType) => ({
+        providerType,
+        commissionRate: rates[providerType],
+    }));
+    res = http.put(`${BASE_URL}/admin/auth/commissions/settings/bulk`, JSON.stringify(commissionBody), { headers });
+    bulkCommissionSettingsLatency.add(res.timings.duration);
+    check(res, { 'commission settings updated': (r) => r.status === 200 });
+}
+
+export function awardPoints() {
+    const res = http.post(`${BASE_URL}/admin/auth/tripfluencer-points/add`,
+        JSON.stringify({ userId: USER_ID, points: 1, reason: 'batch write benchmark' }), { headers });
+    addPointsLatency.add(res.timings.duration);
+    check(res, { 'points added': (r) => r.status === 200 });
+}
@@ -0,0 +1,59 @@
+-- Round trips per statement for the write paths exercised by benchmarks/batch_writes_benchmark.js.
+--
+-- Needs pg_stat_statements (shared_preload_libraries = 'pg_stat_statements'). Reset it before the k6 run:
+--   psql -c 'SELECT pg_stat_statements_reset()'
+-- and run this file afterwards:
+--   psql -f benchmarks/batch_writes_round_trips.sql
+--
+-- With reWriteBatchedInserts the driver folds a batch into multi-row INSERTs, so "calls" counts
+-- round trips and "rows" the rows they wrote. Batched UPDATEs are not rewritten: they still show one call
+-- per row, although the driver sends the whole batch in a single round trip.
+--
+-- Round trips measured by BatchWritesTest (embedded Postgres 14.15), which counts statement executions,
+-- batch executions and commits at the JDBC boundary. "Before" is the same test run on the tree with this
+-- change reverted (IDENTITY ids, per-tier lookups, no batching):
+--                                                         before   after   after, batch size 1
+--   createCommission, 20 requests                              80      80                    81
+--   point settings bulkUpdateSettings, 5 tiers                 17       4                     8
+--   commission settings bulkUpdateSettings, 3 types            10       4                     6
+--   tripfluencer_points saveAll, 100 rows in one transaction  101       5                   103
+--   points awarding, 100 users: awardPointsForLikes           300     300                     -
+--   points awarding, 100 users: one like batch                  2       2                     -
+-- A request that inserts one row gains nothing: the INSERT ... RETURNING becomes a plain INSERT plus one
+-- nextval per 50 requests. The gains are in transactions that write many rows: the bulk updates lose the
+-- lookup (and forced flush) per tier and send their UPDATEs as one batch, and multi-row inserts go out as
+-- multi-row INSERTs. Points awarding writes points_ledger, which stays on IDENTITY; its batched path is
+-- the like batch endpoint (plain JDBC), which needs one round trip and a commit for 100 users.
+--
+-- V4 moves the sequences past the existing ids. SchemaMigrationRunner applies it while the application
+-- context starts, before the web server, the scheduled jobs and the seeding runners, and a failed
+-- migration fails startup; BatchWritesTest checks the sequences after startup.
+
+CREATE EXTENSION IF NOT EXISTS pg_stat_statements;
+
+SELECT substring(regexp_replace(query, '\s+', ' ', 'g') for 100) AS statement,
+       calls,
+       rows,
+       round(total_exec_time::numeric, 1)                            AS total_ms,
+       round((rows::numeric / NULLIF(calls, 0)), 1)                  AS rows_per_call
+FROM pg_stat_statements
+WHERE query ~* '(commissions|commission_settings|point_settings|points_ledger|tripfluencer_points|_seq)'
+  AND query !~* 'pg_stat_statements'
+ORDER BY calls DESC
+LIMIT 40;
+
+-- Totals per kind of statement
+SELECT CASE
+           WHEN query ~* '^\s*insert' THEN 'INSERT'
+           WHEN query ~* '^\s*update' THEN 'UPDATE'
+           WHEN query ~* 'nextval' THEN 'nextval'
+           WHEN query ~* '^\s*select' THEN 'SELECT'
+           ELSE 'other'
+       END        AS kind,
+       sum(calls) AS round_trips,
+       sum(rows)  AS rows
+FROM pg_stat_statements
+WHERE query ~* '(commissions|commission_settings|point_settings|points_ledger|tripfluencer_points|_seq)'
+  AND query !~* 'pg_stat_statements'
+GROUP BY 1
+ORDER BY 1;
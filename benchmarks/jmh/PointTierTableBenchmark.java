@@ -0,0 +1,91 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 21
+//DEPS org.openjdk.jmh:jmh-core:1.37
+//DEPS org.openjdk.jmh:jmh-generator-annprocess:1.37
+//DEPS org.projectlombok:lombok:1.18.34
+//DEPS jakarta.persistence:jakarta.persistence-api:3.1.0
+//DEPS org.hibernate.orm:hibernate-core:6.6.26.Final
+//SOURCES ../../src/main/java/com/example/admin_service/entity/PointSettings.java
+//SOURCES ../../src/main/java/com/example/admin_service/services/PointTierTable.java
+
+// Likes pricing: the previous linear scan over the tier settings vs. the compiled PointTierTable.
+//
+//   jbang benchmarks/jmh/PointTierTableBenchmark.java
+//
+// Both variants price the same pseudo-random like counts against the default tiers. The linear scan is
+// measured without its findAllByOrderByMinLikesAsc() query, so the difference shown is a lower bound: the
+// old code also made one database round trip per call. Add "-prof gc" to compare allocation per call.
+// That both variants give the same points is checked by PointTierTableTest, not here.
+
+import com.example.admin_service.entity.PointSettings;
+import com.example.admin_service.services.PointTierTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointTierTableBenchmark {
+
+    private List<PointSettings> settings;
+    private PointTierTable table;
+    private int[] likes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        settings = List.of(
+                new PointSettings("tier1", 0, 1000, 10),
+                new PointSettings("tier2", 1001, 10000, 20),
+                new PointSettings("tier3", 10001, 100000, 30),
+                new PointSettings("tier4", 100001, 500000, 40),
+                new PointSettings("tier5", 500001, 1000000, 50));
+        table = PointTierTable.compile(settings);
+
+        SplittableRandom random = new SplittableRandom(42);
+        likes = new int[4096];
+        for (int i = 0; i < likes.length; i++) {
+            likes[i] = random.nextInt(1_200_000);
+        }
+    }
+
+    private int nextLikes() {
+        next = (next + 1) & (likes.length - 1);
+        return likes[next];
+    }
+
+    @Benchmark
+    public Integer linearScan() {
+        return linearScan(settings, nextLikes());
+    }
+
+    @Benchmark
+    public int compiledTable() {
+        return table.pointsFor(nextLikes());
+    }
+
+    // PointSettingsService.calculatePointsFromLikes before the tier table, minus the repository call
+    private static Integer linearScan(List<PointSettings> settings, Integer likes) {
+        for (PointSettings setting : settings) {
+            if (likes >= setting.getMinLikes() && likes <= setting.getMaxLikes()) {
+                if (setting.getTierName().equals("tier1")) {
+                    return (likes / 100) * setting.getPointsPerMilestone();
+                }
+                return setting.getPointsPerMilestone();
+            }
+        }
+        return settings.isEmpty() ? 0 : settings.get(settings.size() - 1).getPointsPerMilestone();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new CommandLineOptions(args)).run();
+    }
+}
@@ -0,0 +1,91 @@
+// Points balance stress test: 500 concurrent writers against a single TripFluencer.
+//
+// The same invariant is checked in the build by PointsConcurrencyTest (500 writers through the service
+// layer against an embedded Postgres); this script exercises a deployed instance end to end over HTTP.
+//
+// Run against a staging instance (never production), with a TripFluencer that already exists:
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e TOKEN=<admin jwt> -e USER_ID=<tripfluencer user id> \
+//       benchmarks/points_concurrency_stress.js
+//
+// Setup credits a seed large enough that no deduction can fail, then each of the 500 writers performs
+// OPS_PER_WRITER additions and OPS_PER_WRITER deductions of one point, interleaved. Teardown re-reads
+// the balance and fails the run unless every write is accounted for:
+//   currentPoints     = before + seed
+//   totalPointsEarned = before + seed + writers * ops
+//   pointsUsed        = before + writers * ops
+
+import http from 'k6/http';
+import { check, fail } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const TOKEN = __ENV.TOKEN;
+const USER_ID = Number(__ENV.USER_ID);
+const WRITERS = Number(__ENV.WRITERS || 500);
+const OPS_PER_WRITER = Number(__ENV.OPS_PER_WRITER || 20);
+
+export const options = {
+    setupTimeout: '60s',
+    scenarios: {
+        writers: {
+            executor: 'per-vu-iterations',
+            vus: WRITERS,
+            iterations: OPS_PER_WRITER,
+            maxDuration: '10m',
+        },
+    },
+    thresholds: {
+        checks: ['rate==1.0'],
+    },
+};
+
+const headers = {
+    Authorization: `Bearer ${TOKEN}`,
+    'Content-Type': 'application/json',
+};
+
+function readPoints() {
+    const res = http.get(`${BASE_URL}/admin/auth/tripfluencer-points/user/${USER_ID}`, { headers });
+    if (res.status !== 200) {
+        fail(`could not read points for user ${USER_ID}: ${res.status} ${res.body}`);
+    }
+    return res.json();
+}
+
+function post(path, points, reason) {
+    return http.post(`${BASE_URL}/admin/auth/tripfluencer-points/${path}`,
+        JSON.stringify({ userId: USER_ID, points, reason }), { headers });
+}
+
+export function setup() {
+    const before = readPoints();
+    const seed = WRITERS * OPS_PER_WRITER;
+    const res = post('add', seed, 'stress test seed');
+    if (res.status !== 200) {
+        fail(`seed failed: ${res.status} ${res.body}`);
+    }
+    return { before, seed };
+}
+
+export default function () {
+    check(post('add', 1, 'stress test add'), { 'add ok': (r) => r.status === 200 });
+    check(post('deduct', 1, 'stress test deduct'), { 'deduct ok': (r) => r.status === 200 });
+}
+
+export function teardown({ before, seed }) {
+    const after = readPoints();
+    const writes = WRITERS * OPS_PER_WRITER;
+
+    const expected = {
+        currentPoints: before.currentPoints + seed,
+        totalPointsEarned: before.totalPointsEarned + seed + writes,
+        pointsUsed: before.pointsUsed + writes,
+    };
+
+    for (const field of Object.keys(expected)) {
+        if (after[field] !== expected[field]) {
+            fail(`${field}: expected ${expected[field]}, got ${after[field]} (lost ${expected[field] - after[field]})`);
+        }
+    }
+    console.log(`No lost updates across ${2 * writes} concurrent writes: ${JSON.stringify(expected)}`);
+}
@@ -1,18 +1,52 @@
-// config/AppConfig.java
 package com.example.admin_service.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 @Configuration
+@RequiredArgsConstructor
+@Slf4j
 public class AppConfig implements WebMvcConfigurer {
 
+    private final Environment environment;
+    private final DownstreamResilience downstreamResilience;
+    private final List<CloseableHttpClient> httpClients = new CopyOnWriteArrayList<>();
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
@@ -21,11 +55,140 @@ public class AppConfig implements WebMvcConfigurer {
                 .allowedHeaders("*");
     }
 
+    /**
+     * ETags for the proxied service-provider and promotion listings, so polling clients get a 304
+     * without a body when nothing changed. Responses are marked private/no-cache so browsers keep
+     * them and revalidate instead of Spring Security's default no-store.
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> proxyEtagFilter() {
+        ShallowEtagHeaderFilter etagFilter = new ShallowEtagHeaderFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                if ("GET".equals(request.getMethod())) {
+                    response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+                }
+                super.doFilterInternal(request, response, filterChain);
+            }
+        };
+
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(etagFilter);
+        registration.addUrlPatterns("/admin/auth/all_service", "/admin/auth/promotions/*");
+        registration.setName("proxyEtagFilter");
+        return registration;
+    }
+
+    /**
+     * In virtual-thread mode, keep the number of requests using the database in line with the Hikari pool
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public FilterRegistrationBean<DatabaseConcurrencyFilter> databaseConcurrencyFilter(ObjectMapper objectMapper) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int maxInFlight = environment.getProperty("db.concurrency.max-in-flight", Integer.class, poolSize * 2);
+        long queueTimeoutMs = environment.getProperty("db.concurrency.queue-timeout-ms", Long.class, 2000L);
+        log.info("Database concurrency limit: {} in-flight requests for a pool of {}", maxInFlight, poolSize);
+
+        FilterRegistrationBean<DatabaseConcurrencyFilter> registration = new FilterRegistrationBean<>(
+                new DatabaseConcurrencyFilter(maxInFlight, queueTimeoutMs, objectMapper));
+        // After the security filter chain, so that unauthenticated requests are rejected without taking a permit
+        registration.setOrder(environment.getProperty("spring.security.filter.order", Integer.class,
+                SecurityProperties.DEFAULT_FILTER_ORDER) + 1);
+        registration.setName("databaseConcurrencyFilter");
+        return registration;
+    }
+
+    /**
+     * Client for the service-provider API (promotions, service providers)
+     */
+    @Bean
+    @Primary
+    public RestTemplate restTemplate(MeterRegistry meterRegistry) {
+        return pooledRestTemplate("serviceprovider", meterRegistry);
+    }
+
+    /**
+     * Client for the user service, on its own connection pool so that slow
+     * user lookups cannot starve promotion and service-provider calls
+     */
     @Bean
-    public RestTemplate restTemplate() {
+    public RestTemplate userServiceRestTemplate(MeterRegistry meterRegistry) {
+        return pooledRestTemplate("userservice", meterRegistry);
+    }
+
+    /**
+     * Build a RestTemplate over a dedicated connection pool, guarded by the downstream's circuit breaker
+     * and bulkhead. Limits and timeouts are read from http.client.{downstream}.* and the pool's
+     * leased/available/pending counts are published as httpcomponents.httpclient.pool.* metrics
+     * tagged with the downstream name.
+     */
+    private RestTemplate pooledRestTemplate(String downstream, MeterRegistry meterRegistry) {
+        String prefix = "http.client." + downstream + ".";
+        int maxTotal = environment.getProperty(prefix + "max-total", Integer.class, 50);
+        int maxPerRoute = environment.getProperty(prefix + "max-per-route", Integer.class, 20);
+        long connectTimeoutMs = environment.getProperty(prefix + "connect-timeout-ms", Long.class, 2000L);
+        long responseTimeoutMs = environment.getProperty(prefix + "response-timeout-ms", Long.class, 10000L);
+        long requestTimeoutMs = environment.getProperty(prefix + "pool-acquire-timeout-ms", Long.class, 1000L);
+        long keepAliveMs = environment.getProperty(prefix + "keep-alive-ms", Long.class, 30000L);
+        long validateAfterInactivityMs = environment.getProperty(prefix + "validate-after-inactivity-ms", Long.class, 2000L);
+        long idleEvictMs = environment.getProperty(prefix + "idle-evict-ms", Long.class, 60000L);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                        .build())
+                .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(requestTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                .build();
+
         // Use Apache HttpClient which supports PATCH method
-        CloseableHttpClient httpClient = HttpClients.createDefault();
-        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
-        return new RestTemplate(requestFactory);
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(cappedKeepAlive(TimeValue.ofMilliseconds(keepAliveMs)))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictMs))
+                .build();
+        httpClients.add(httpClient);
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, downstream).bindTo(meterRegistry);
+
+        log.info("HTTP pool '{}': maxTotal={}, maxPerRoute={}, connectTimeout={}ms, responseTimeout={}ms",
+                downstream, maxTotal, maxPerRoute, connectTimeoutMs, responseTimeoutMs);
+
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.getInterceptors().add(downstreamResilience.interceptorFor(downstream));
+        return restTemplate;
+    }
+
+    /**
+     * Honour the server's Keep-Alive header but never keep an idle connection longer than max
+     */
+    private static ConnectionKeepAliveStrategy cappedKeepAlive(TimeValue max) {
+        return (response, context) -> {
+            TimeValue requested = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(requested) && requested.toMilliseconds() < max.toMilliseconds()
+                    ? requested
+                    : max;
+        };
+    }
+
+    @PreDestroy
+    public void closeHttpClients() {
+        for (CloseableHttpClient httpClient : httpClients) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                log.warn("Failed to close HTTP client: {}", e.getMessage());
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.example.admin_service.config;
 
+import com.example.admin_service.repository.CommissionRepository;
+import com.example.admin_service.services.CommissionRollupService;
 import com.example.admin_service.services.CommissionSettingsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,12 +19,21 @@ import org.springframework.stereotype.Component;
 public class CommissionSystemInitializer implements CommandLineRunner {
 
     private final CommissionSettingsService commissionSettingsService;
+    private final CommissionRollupService commissionRollupService;
+    private final CommissionRepository commissionRepository;
 
     @Override
     public void run(String... args) {
         try {
             log.info("Initializing Commission System...");
             commissionSettingsService.initializeDefaultSettings();
+            commissionSettingsService.reloadRates();
+
+            // Backfill the rollup table the first time it is deployed against existing data
+            if (commissionRollupService.isEmpty() && commissionRepository.count() > 0) {
+                log.info("Commission rollups are empty, rebuilding from commissions...");
+                commissionRollupService.rebuild();
+            }
             log.info("Commission System initialized successfully");
         } catch (Exception e) {
             log.error("Failed to initialize Commission System: {}", e.getMessage(), e);
@@ -0,0 +1,74 @@
+package com.example.admin_service.config;
+
+import com.example.admin_service.dto.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of requests that may use the database at once, sized from the Hikari pool.
+ * With virtual threads Tomcat no longer bounds concurrency, so without this thousands of requests would
+ * queue inside Hikari and time out together; here excess requests wait briefly and are then rejected
+ * with 503 and Retry-After. It runs after the security filter chain, so only authenticated requests take a
+ * permit; the principal lookup JwtFilter makes on a cache miss happens before that and is not counted.
+ * Proxy endpoints whose handlers only call the service-provider API are not limited.
+ */
+@Slf4j
+public class DatabaseConcurrencyFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long queueTimeoutMs;
+    private final ObjectMapper objectMapper;
+
+    public DatabaseConcurrencyFilter(int maxInFlight, long queueTimeoutMs, ObjectMapper objectMapper) {
+        this.permits = new Semaphore(Math.max(1, maxInFlight), true);
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/admin/auth/promotions")
+                || path.equals("/admin/auth/all_service")
+                || path.startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            log.warn("Rejecting {} {}: database concurrency limit reached", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ApiError("Server is busy, please retry", HttpStatus.SERVICE_UNAVAILABLE.value()));
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
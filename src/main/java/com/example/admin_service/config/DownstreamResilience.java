@@ -0,0 +1,214 @@
+package com.example.admin_service.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker and semaphore bulkhead per downstream service, applied to every request made through
+ * that downstream's RestTemplate. Connection failures and 5xx responses count as failures; once the failure
+ * rate over the sliding window crosses the threshold, calls fail fast with CallNotPermittedException until
+ * a few half-open probe calls succeed. The bulkhead caps how many request threads can be waiting on one
+ * dependency at a time and rejects the rest with BulkheadFullException. A call lasts until its response is
+ * closed, so reading the body counts towards both the bulkhead and the breaker's outcome and duration.
+ */
+@Component
+@Slf4j
+public class DownstreamResilience {
+
+    private final Environment environment;
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+
+    public DownstreamResilience(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+    }
+
+    /**
+     * Interceptor guarding all calls to the named downstream, configured from http.client.{downstream}.*
+     */
+    public ClientHttpRequestInterceptor interceptorFor(String downstream) {
+        CircuitBreaker circuitBreaker = circuitBreakerFor(downstream);
+        Bulkhead bulkhead = bulkheadFor(downstream);
+
+        return (request, body, execution) -> {
+            bulkhead.acquirePermission();
+            long start;
+            ClientHttpResponse response;
+            try {
+                circuitBreaker.acquirePermission();
+                start = System.nanoTime();
+                try {
+                    response = execution.execute(request, body);
+                } catch (IOException | RuntimeException e) {
+                    circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                    throw e;
+                }
+            } catch (IOException | RuntimeException e) {
+                bulkhead.onComplete();
+                throw e;
+            }
+            // The body is still unread here; the call ends when RestTemplate closes the response
+            return new GuardedResponse(response, circuitBreaker, bulkhead, start);
+        };
+    }
+
+    /**
+     * Response that holds the bulkhead permit until it is closed, and records the call's outcome then:
+     * a 5xx status or a failed body read counts as a failure, anything else as a success
+     */
+    private static final class GuardedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final long start;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile Throwable bodyFailure;
+
+        private GuardedResponse(ClientHttpResponse delegate, CircuitBreaker circuitBreaker,
+                                Bulkhead bulkhead, long start) {
+            this.delegate = delegate;
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            InputStream body;
+            try {
+                body = delegate.getBody();
+            } catch (IOException | RuntimeException e) {
+                bodyFailure = e;
+                throw e;
+            }
+            return new FilterInputStream(body) {
+                @Override
+                public int read() throws IOException {
+                    try {
+                        return super.read();
+                    } catch (IOException e) {
+                        bodyFailure = e;
+                        throw e;
+                    }
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    try {
+                        return super.read(buffer, offset, length);
+                    } catch (IOException e) {
+                        bodyFailure = e;
+                        throw e;
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                delegate.close();
+            } finally {
+                try {
+                    recordOutcome(System.nanoTime() - start);
+                } finally {
+                    bulkhead.onComplete();
+                }
+            }
+        }
+
+        private void recordOutcome(long elapsed) {
+            if (bodyFailure != null) {
+                circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, bodyFailure);
+                return;
+            }
+            HttpStatusCode status;
+            try {
+                status = delegate.getStatusCode();
+            } catch (IOException e) {
+                circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, e);
+                return;
+            }
+            if (status.is5xxServerError()) {
+                circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, new HttpServerErrorException(status));
+            } else {
+                circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private CircuitBreaker circuitBreakerFor(String downstream) {
+        String prefix = "http.client." + downstream + ".circuit-breaker.";
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(environment.getProperty(prefix + "window-size", Integer.class, 20))
+                .minimumNumberOfCalls(environment.getProperty(prefix + "minimum-calls", Integer.class, 10))
+                .failureRateThreshold(environment.getProperty(prefix + "failure-rate-threshold", Float.class, 50f))
+                .slowCallDurationThreshold(Duration.ofMillis(
+                        environment.getProperty(prefix + "slow-call-ms", Long.class, 5000L)))
+                .slowCallRateThreshold(environment.getProperty(prefix + "slow-call-rate-threshold", Float.class, 80f))
+                .waitDurationInOpenState(Duration.ofMillis(
+                        environment.getProperty(prefix + "open-wait-ms", Long.class, 15000L)))
+                .permittedNumberOfCallsInHalfOpenState(
+                        environment.getProperty(prefix + "half-open-calls", Integer.class, 3))
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build();
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(downstream, config);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuit breaker '{}' {}", downstream, event.getStateTransition()));
+        return circuitBreaker;
+    }
+
+    private Bulkhead bulkheadFor(String downstream) {
+        String prefix = "http.client." + downstream + ".bulkhead.";
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(environment.getProperty(prefix + "max-concurrent", Integer.class, 20))
+                .maxWaitDuration(Duration.ofMillis(environment.getProperty(prefix + "max-wait-ms", Long.class, 0L)))
+                .build();
+        return bulkheadRegistry.bulkhead(downstream, config);
+    }
+}
@@ -1,8 +1,7 @@
 // config/JwtFilter.java
 package com.example.admin_service.config;
 
-import com.example.admin_service.services.JWTService;
-import com.example.admin_service.services.ServiceProviderUserDetailsService;
+import com.example.admin_service.services.TokenAuthenticationCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,8 +21,7 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
-    private final JWTService jwtService;
-    private final ServiceProviderUserDetailsService userDetailsService;
+    private final TokenAuthenticationCache tokenAuthenticationCache;
 
     @Override
     protected void doFilterInternal(
@@ -34,7 +32,6 @@ public class JwtFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -42,12 +39,12 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUserName(jwt);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Verified tokens are cached until they expire, so this is normally a single hash lookup
+            UserDetails userDetails = tokenAuthenticationCache.authenticate(jwt);
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
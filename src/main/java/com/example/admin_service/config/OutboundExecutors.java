@@ -0,0 +1,99 @@
+package com.example.admin_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the executors used for outbound HTTP fan-out (user lookups, bulk promotion calls, cache refreshes).
+ * With spring.threads.virtual.enabled each task runs on its own virtual thread and a semaphore keeps the
+ * same concurrency bound the platform-thread pool would have, so the downstream pools and bulkheads
+ * are not flooded. Otherwise a fixed pool of daemon platform threads is used.
+ */
+@Component
+@Slf4j
+public class OutboundExecutors {
+
+    private final boolean virtualThreads;
+
+    public OutboundExecutors(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        log.info("Outbound HTTP fan-out runs on {} threads", virtualThreads ? "virtual" : "platform");
+    }
+
+    public ExecutorService newBoundedExecutor(String namePrefix, int maxConcurrency) {
+        int bound = Math.max(1, maxConcurrency);
+        if (virtualThreads) {
+            return new BoundedVirtualThreadExecutor(namePrefix, bound);
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(namePrefix);
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(bound, threadFactory);
+    }
+
+    /**
+     * Thread-per-task virtual executor that lets at most maxConcurrency tasks run at once;
+     * the rest park cheaply on the semaphore instead of queueing in a pool
+     */
+    private static class BoundedVirtualThreadExecutor extends AbstractExecutorService {
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        private BoundedVirtualThreadExecutor(String namePrefix, int maxConcurrency) {
+            this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+            this.permits = new Semaphore(maxConcurrency);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    // Cancelled while waiting for a permit
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
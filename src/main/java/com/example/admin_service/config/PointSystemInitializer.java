@@ -1,6 +1,7 @@
 package com.example.admin_service.config;
 
 import com.example.admin_service.services.PointSettingsService;
+import com.example.admin_service.services.PointsLeaderboard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -15,12 +16,14 @@ import org.springframework.stereotype.Component;
 public class PointSystemInitializer implements CommandLineRunner {
 
     private final PointSettingsService pointSettingsService;
+    private final PointsLeaderboard leaderboard;
 
     @Override
     public void run(String... args) {
         try {
             log.info("Initializing TripFluencer Points System...");
             pointSettingsService.initializeDefaultSettings();
+            leaderboard.rebuild();
             log.info("TripFluencer Points System initialized successfully");
         } catch (Exception e) {
             log.error("Failed to initialize TripFluencer Points System: {}", e.getMessage(), e);
@@ -0,0 +1,40 @@
+package com.example.admin_service.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Applies the versioned SQL migrations in db/migration (indexes, extensions, id sequences) on startup.
+ * Tables are still created by Hibernate (ddl-auto=update), so this runs right after the
+ * entityManagerFactory is built instead of through Boot's Flyway auto-configuration. It runs while the
+ * context is being created, i.e. before the web server accepts requests and before scheduled jobs and
+ * runners start; a failed migration fails startup.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaMigrationRunner implements InitializingBean {
+
+    private final DataSource dataSource;
+
+    @Override
+    public void afterPropertiesSet() {
+        log.info("Applying schema migrations...");
+        MigrateResult result = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+        log.info("Schema migrations applied: {} executed", result.migrationsExecuted);
+    }
+}
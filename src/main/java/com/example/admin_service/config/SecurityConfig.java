@@ -2,6 +2,7 @@
 package com.example.admin_service.config;
 
 import com.example.admin_service.services.ServiceProviderUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -37,6 +38,9 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // Add CORS configuration
                 .authorizeHttpRequests(auth -> auth
+                        // Dispatches that complete (or time out) an already authorized async request, e.g. the export
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+
                         // Public endpoints
                         .requestMatchers("/service/auth/signup", "/service/auth/login", "/service/auth/test").permitAll()
                         .requestMatchers("/admin/auth/login", "/admin/auth/test", "/admin/auth/setup").permitAll()
@@ -2,21 +2,31 @@ package com.example.admin_service.controller;
 
 import com.example.admin_service.dto.*;
 import com.example.admin_service.entity.Commission;
+import com.example.admin_service.exception.BadRequestException;
+import com.example.admin_service.services.CommissionExportService;
+import com.example.admin_service.services.CommissionImportService;
 import com.example.admin_service.services.CommissionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Controller for managing commissions
@@ -29,23 +39,28 @@ import java.util.Map;
 public class CommissionController {
 
     private final CommissionService commissionService;
+    private final CommissionExportService commissionExportService;
+    private final CommissionImportService commissionImportService;
 
     /**
-     * Get all commissions
+     * Get all commissions, one keyset page at a time
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getAllCommissions(Authentication authentication) {
+    public ResponseEntity<?> getAllCommissions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            Authentication authentication) {
         try {
-            log.info("Admin {} is fetching all commissions", authentication.getName());
-
-            List<CommissionDTO> commissions = commissionService.getAllCommissions();
+            log.info("Admin {} is fetching commissions", authentication.getName());
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("commissions", commissions);
-            response.put("total", commissions.size());
+            CommissionPageDTO page = commissionService.getCommissionsPage(cursor, limit, includeTotal);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(toPageResponse(page));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
         } catch (Exception e) {
             log.error("Error fetching commissions: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -103,24 +118,29 @@ public class CommissionController {
     }
 
     /**
-     * Get commissions by provider type
+     * Get commissions by provider type, one keyset page at a time
      */
     @GetMapping("/type/{providerType}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getCommissionsByProviderType(@PathVariable Commission.ProviderType providerType,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          @RequestParam(defaultValue = "false") boolean includeTotal,
                                                           Authentication authentication) {
         try {
             log.info("Admin {} is fetching commissions for provider type: {}",
                     authentication.getName(), providerType);
 
-            List<CommissionDTO> commissions = commissionService.getCommissionsByProviderType(providerType);
+            CommissionPageDTO page = commissionService.getCommissionsByProviderTypePage(
+                    providerType, cursor, limit, includeTotal);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("commissions", commissions);
+            Map<String, Object> response = toPageResponse(page);
             response.put("providerType", providerType);
-            response.put("total", commissions.size());
 
             return ResponseEntity.ok(response);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
         } catch (Exception e) {
             log.error("Error fetching commissions for provider type {}: {}", providerType, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -135,19 +155,24 @@ public class CommissionController {
     @GetMapping("/provider/{serviceProvider}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getCommissionsByServiceProvider(@PathVariable String serviceProvider,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            @RequestParam(defaultValue = "false") boolean includeTotal,
                                                             Authentication authentication) {
         try {
             log.info("Admin {} is fetching commissions for service provider: {}",
                     authentication.getName(), serviceProvider);
 
-            List<CommissionDTO> commissions = commissionService.getCommissionsByServiceProvider(serviceProvider);
+            CommissionPageDTO page = commissionService.getCommissionsByServiceProviderPage(
+                    serviceProvider, cursor, limit, includeTotal);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("commissions", commissions);
+            Map<String, Object> response = toPageResponse(page);
             response.put("serviceProvider", serviceProvider);
-            response.put("total", commissions.size());
 
             return ResponseEntity.ok(response);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
         } catch (Exception e) {
             log.error("Error fetching commissions for service provider {}: {}", serviceProvider, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -161,18 +186,23 @@ public class CommissionController {
      */
     @GetMapping("/month/{month}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getCommissionsByMonth(@PathVariable String month, Authentication authentication) {
+    public ResponseEntity<?> getCommissionsByMonth(@PathVariable String month,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   @RequestParam(defaultValue = "false") boolean includeTotal,
+                                                   Authentication authentication) {
         try {
             log.info("Admin {} is fetching commissions for month: {}", authentication.getName(), month);
 
-            List<CommissionDTO> commissions = commissionService.getCommissionsByMonth(month);
+            CommissionPageDTO page = commissionService.getCommissionsByMonthPage(month, cursor, limit, includeTotal);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("commissions", commissions);
+            Map<String, Object> response = toPageResponse(page);
             response.put("month", month);
-            response.put("total", commissions.size());
 
             return ResponseEntity.ok(response);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
         } catch (Exception e) {
             log.error("Error fetching commissions for month {}: {}", month, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -182,22 +212,37 @@ public class CommissionController {
     }
 
     /**
-     * Search commissions
+     * Search commissions (mode: CONTAINS, RANKED or PREFIX on transaction ID)
      */
     @GetMapping("/search")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> searchCommissions(@RequestParam String query, Authentication authentication) {
+    public ResponseEntity<?> searchCommissions(@RequestParam String query,
+                                               @RequestParam(defaultValue = "CONTAINS") String mode,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(defaultValue = "false") boolean includeTotal,
+                                               Authentication authentication) {
         try {
-            log.info("Admin {} is searching commissions with query: {}", authentication.getName(), query);
+            log.info("Admin {} is searching commissions with query: {} (mode: {})",
+                    authentication.getName(), query, mode);
 
-            List<CommissionDTO> commissions = commissionService.searchCommissions(query);
+            CommissionService.SearchMode searchMode;
+            try {
+                searchMode = CommissionService.SearchMode.valueOf(mode.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid search mode: " + mode);
+            }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("commissions", commissions);
+            CommissionPageDTO page = commissionService.searchCommissionsPage(query, searchMode, cursor, limit, includeTotal);
+
+            Map<String, Object> response = toPageResponse(page);
             response.put("query", query);
-            response.put("total", commissions.size());
+            response.put("mode", searchMode);
 
             return ResponseEntity.ok(response);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
         } catch (Exception e) {
             log.error("Error searching commissions: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -207,27 +252,116 @@ public class CommissionController {
     }
 
     /**
-     * Get commissions by date range
+     * Export commissions as CSV or NDJSON, streamed from the database (filters are optional)
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Object exportCommissions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String month,
+            @RequestParam(required = false) Commission.ProviderType providerType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            Authentication authentication,
+            HttpServletResponse response) {
+        try {
+            log.info("Admin {} is exporting commissions as {} (month={}, type={}, from={}, to={})",
+                    authentication.getName(), format, month, providerType, startDate, endDate);
+
+            CommissionExportService.Format exportFormat = commissionExportService.parseFormat(format);
+            commissionExportService.validateFilters(startDate, endDate);
+
+            if (!commissionExportService.tryAcquireSlot()) {
+                log.warn("Rejecting export for admin {}: too many exports running", authentication.getName());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "30")
+                        .body(new ApiError("Too many exports are running, please retry later",
+                                HttpStatus.SERVICE_UNAVAILABLE.value()));
+            }
+
+            // The slot is released exactly once: by the task if it starts, otherwise by whichever of the
+            // error, completion or setup-failure paths gets to it first
+            AtomicBoolean slotTaken = new AtomicBoolean();
+            Runnable releaseUnusedSlot = () -> {
+                if (slotTaken.compareAndSet(false, true)) {
+                    commissionExportService.releaseSlot();
+                }
+            };
+            try {
+                response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("commissions." + exportFormat.getExtension())
+                        .build()
+                        .toString());
+
+                // Streams on its own async task so that only the export gets the long timeout
+                WebAsyncTask<Void> export = new WebAsyncTask<>(commissionExportService.getTimeoutMs(), () -> {
+                    if (!slotTaken.compareAndSet(false, true)) {
+                        return null;
+                    }
+                    try {
+                        commissionExportService.export(exportFormat, month, providerType, startDate, endDate,
+                                response.getOutputStream());
+                    } finally {
+                        commissionExportService.releaseSlot();
+                    }
+                    return null;
+                });
+                // The response is already committed, so just end it; the export stops at its next write
+                export.onTimeout(() -> {
+                    log.warn("Export for admin {} timed out after {} ms; the file is incomplete",
+                            authentication.getName(), commissionExportService.getTimeoutMs());
+                    return null;
+                });
+                // Covers a task the executor rejected or a request that failed before the task ran
+                export.onError(() -> {
+                    releaseUnusedSlot.run();
+                    return null;
+                });
+                export.onCompletion(releaseUnusedSlot);
+                return export;
+            } catch (RuntimeException e) {
+                releaseUnusedSlot.run();
+                throw e;
+            }
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
+        } catch (Exception e) {
+            log.error("Error exporting commissions: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiError("Failed to export commissions: " + e.getMessage(),
+                            HttpStatus.INTERNAL_SERVER_ERROR.value()));
+        }
+    }
+
+    /**
+     * Get commissions by date range, one keyset page at a time
      */
     @GetMapping("/date-range")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getCommissionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             Authentication authentication) {
         try {
             log.info("Admin {} is fetching commissions from {} to {}",
                     authentication.getName(), startDate, endDate);
 
-            List<CommissionDTO> commissions = commissionService.getCommissionsByDateRange(startDate, endDate);
+            CommissionPageDTO page = commissionService.getCommissionsByDateRangePage(
+                    startDate, endDate, cursor, limit, includeTotal);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("commissions", commissions);
+            Map<String, Object> response = toPageResponse(page);
             response.put("startDate", startDate);
             response.put("endDate", endDate);
-            response.put("total", commissions.size());
 
             return ResponseEntity.ok(response);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
         } catch (Exception e) {
             log.error("Error fetching commissions by date range: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -289,11 +423,16 @@ public class CommissionController {
      */
     @GetMapping("/statistics")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getStatistics(Authentication authentication) {
+    public ResponseEntity<?> getStatistics(
+            @RequestParam(required = false) String month,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            Authentication authentication) {
         try {
-            log.info("Admin {} is fetching commission statistics", authentication.getName());
+            log.info("Admin {} is fetching commission statistics (month: {}, from: {}, to: {})",
+                    authentication.getName(), month, startDate, endDate);
 
-            Map<String, Object> stats = commissionService.calculateStatistics();
+            Map<String, Object> stats = commissionService.calculateStatistics(month, startDate, endDate);
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
             log.error("Error fetching commission statistics: {}", e.getMessage(), e);
@@ -303,6 +442,62 @@ public class CommissionController {
         }
     }
 
+    /**
+     * Rebuild the commission rollup table (backfill after imports or manual data fixes)
+     */
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildRollups(Authentication authentication) {
+        try {
+            log.info("Admin {} is rebuilding commission rollups", authentication.getName());
+
+            int rows = commissionService.rebuildRollups();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Commission rollups rebuilt successfully");
+            response.put("rollupRows", rows);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error rebuilding commission rollups: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiError("Failed to rebuild commission rollups: " + e.getMessage(),
+                            HttpStatus.INTERNAL_SERVER_ERROR.value()));
+        }
+    }
+
+    /**
+     * Bulk import commissions from a JSON array or a CSV file (Content-Type text/csv);
+     * existing transaction IDs are skipped and counted as duplicates
+     */
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importCommissions(HttpServletRequest request, Authentication authentication) {
+        try {
+            String contentType = request.getContentType() != null ? request.getContentType() : "";
+            log.info("Admin {} is importing commissions ({})", authentication.getName(), contentType);
+
+            CommissionImportResultDTO result;
+            if (contentType.startsWith("text/csv")) {
+                result = commissionImportService.importCsv(request.getInputStream());
+            } else if (contentType.startsWith(MediaType.APPLICATION_JSON_VALUE)) {
+                result = commissionImportService.importJson(request.getInputStream());
+            } else {
+                throw new BadRequestException("Content-Type must be application/json or text/csv");
+            }
+
+            return ResponseEntity.ok(result);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
+        } catch (Exception e) {
+            log.error("Error importing commissions: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiError("Failed to import commissions: " + e.getMessage(),
+                            HttpStatus.INTERNAL_SERVER_ERROR.value()));
+        }
+    }
+
     /**
      * Create new commission
      */
@@ -360,4 +555,19 @@ public class CommissionController {
                             HttpStatus.INTERNAL_SERVER_ERROR.value()));
         }
     }
+
+    /**
+     * Build the common response body for a keyset page; "total" is only present when it was requested
+     */
+    private Map<String, Object> toPageResponse(CommissionPageDTO page) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("commissions", page.getCommissions());
+        response.put("count", page.getCommissions().size());
+        response.put("hasMore", page.isHasMore());
+        response.put("nextCursor", page.getNextCursor());
+        if (page.getTotal() != null) {
+            response.put("total", page.getTotal());
+        }
+        return response;
+    }
 }
@@ -201,10 +201,11 @@ public class PointRedemptionController {
             AdminPrincipal admin = (AdminPrincipal) authentication.getPrincipal();
             log.info("Admin {} is triggering expiration of old redemptions", admin.getEmail());
 
-            redemptionService.expireOldRedemptions();
+            int expired = redemptionService.expireOldRedemptions();
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Old redemptions expired successfully");
+            response.put("expired", expired);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -1,6 +1,7 @@
 package com.example.admin_service.controller;
 
 import com.example.admin_service.dto.ApiError;
+import com.example.admin_service.dto.BulkOperationResultDTO;
 import com.example.admin_service.dto.CreatePromotionDTO;
 import com.example.admin_service.dto.PromotionResponseDTO;
 import com.example.admin_service.dto.UpdatePromotionStatusDTO;
@@ -347,30 +348,9 @@ public class PromotionController {
             log.info("Admin {} is bulk approving {} promotions", currentAdmin.getEmail(), promotionIds.size());
 
             String token = authHeader.replace("Bearer ", "");
-            int successCount = 0;
-            int failCount = 0;
-
-            for (Long id : promotionIds) {
-                try {
-                    PromotionResponseDTO result = promotionService.updatePromotionStatus(id, "APPROVED", token);
-                    if (result != null) {
-                        successCount++;
-                    } else {
-                        failCount++;
-                    }
-                } catch (Exception e) {
-                    log.error("Failed to approve promotion {}: {}", id, e.getMessage());
-                    failCount++;
-                }
-            }
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Bulk approval completed");
-            response.put("total", promotionIds.size());
-            response.put("successful", successCount);
-            response.put("failed", failCount);
+            BulkOperationResultDTO result = promotionService.bulkUpdatePromotionStatus(promotionIds, "APPROVED", token);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(toBulkResponse("Bulk approval completed", result));
         } catch (Exception e) {
             log.error("Error in bulk approve: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -393,30 +373,9 @@ public class PromotionController {
             log.info("Admin {} is bulk rejecting {} promotions", currentAdmin.getEmail(), promotionIds.size());
 
             String token = authHeader.replace("Bearer ", "");
-            int successCount = 0;
-            int failCount = 0;
-
-            for (Long id : promotionIds) {
-                try {
-                    PromotionResponseDTO result = promotionService.updatePromotionStatus(id, "REJECTED", token);
-                    if (result != null) {
-                        successCount++;
-                    } else {
-                        failCount++;
-                    }
-                } catch (Exception e) {
-                    log.error("Failed to reject promotion {}: {}", id, e.getMessage());
-                    failCount++;
-                }
-            }
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Bulk rejection completed");
-            response.put("total", promotionIds.size());
-            response.put("successful", successCount);
-            response.put("failed", failCount);
+            BulkOperationResultDTO result = promotionService.bulkUpdatePromotionStatus(promotionIds, "REJECTED", token);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(toBulkResponse("Bulk rejection completed", result));
         } catch (Exception e) {
             log.error("Error in bulk reject: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -439,30 +398,9 @@ public class PromotionController {
             log.info("Admin {} is bulk deleting {} promotions", currentAdmin.getEmail(), promotionIds.size());
 
             String token = authHeader.replace("Bearer ", "");
-            int successCount = 0;
-            int failCount = 0;
-
-            for (Long id : promotionIds) {
-                try {
-                    boolean deleted = promotionService.deletePromotion(id, token);
-                    if (deleted) {
-                        successCount++;
-                    } else {
-                        failCount++;
-                    }
-                } catch (Exception e) {
-                    log.error("Failed to delete promotion {}: {}", id, e.getMessage());
-                    failCount++;
-                }
-            }
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Bulk deletion completed");
-            response.put("total", promotionIds.size());
-            response.put("successful", successCount);
-            response.put("failed", failCount);
+            BulkOperationResultDTO result = promotionService.bulkDeletePromotions(promotionIds, token);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(toBulkResponse("Bulk deletion completed", result));
         } catch (Exception e) {
             log.error("Error in bulk delete: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -470,4 +408,18 @@ public class PromotionController {
                             HttpStatus.INTERNAL_SERVER_ERROR.value()));
         }
     }
+
+    private Map<String, Object> toBulkResponse(String message, BulkOperationResultDTO result) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", message);
+        response.put("total", result.getTotal());
+        response.put("successful", result.getSuccessful());
+        // Confirmed failures only; timed-out and unknown items are not known to have failed
+        response.put("failed", result.getFailed());
+        response.put("timedOut", result.getTimedOut());
+        response.put("unknown", result.getUnknown());
+        response.put("elapsedMs", result.getElapsedMs());
+        response.put("results", result.getResults());
+        return response;
+    }
 }
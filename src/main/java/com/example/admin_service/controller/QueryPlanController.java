@@ -0,0 +1,54 @@
+package com.example.admin_service.controller;
+
+import com.example.admin_service.dto.ApiError;
+import com.example.admin_service.dto.QueryPlanDTO;
+import com.example.admin_service.services.QueryPlanReportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller for the repository query plan report
+ */
+@RestController
+@RequestMapping("/admin/auth/query-plans")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@Slf4j
+public class QueryPlanController {
+
+    private final QueryPlanReportService queryPlanReportService;
+
+    /**
+     * EXPLAIN the repository queries and flag sequential scans
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getQueryPlans(Authentication authentication) {
+        try {
+            log.info("Admin {} is requesting the query plan report", authentication.getName());
+
+            List<QueryPlanDTO> plans = queryPlanReportService.explainRepositoryQueries();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("plans", plans);
+            response.put("total", plans.size());
+            response.put("flagged", plans.stream().filter(QueryPlanDTO::isFlagged).count());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error building query plan report: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiError("Failed to build query plan report: " + e.getMessage(),
+                            HttpStatus.INTERNAL_SERVER_ERROR.value()));
+        }
+    }
+}
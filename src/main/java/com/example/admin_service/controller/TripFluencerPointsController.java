@@ -2,6 +2,8 @@ package com.example.admin_service.controller;
 
 import com.example.admin_service.dto.*;
 import com.example.admin_service.entity.AdminPrincipal;
+import com.example.admin_service.exception.BadRequestException;
+import com.example.admin_service.services.LikeIngestionService;
 import com.example.admin_service.services.TripFluencerPointsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +28,7 @@ import java.util.Map;
 public class TripFluencerPointsController {
 
     private final TripFluencerPointsService pointsService;
+    private final LikeIngestionService likeIngestionService;
 
     /**
      * Get all TripFluencers and their points
@@ -113,6 +116,30 @@ public class TripFluencerPointsController {
         }
     }
 
+    /**
+     * Award points for a batch of like events (feed service ingestion)
+     */
+    @PostMapping("/likes/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> ingestLikes(
+            @RequestBody List<LikeEventDTO> events,
+            Authentication authentication) {
+        try {
+            log.debug("{} is ingesting {} like events", authentication.getName(), events.size());
+
+            LikeBatchResultDTO result = likeIngestionService.ingest(events);
+            return ResponseEntity.ok(result);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
+        } catch (Exception e) {
+            log.error("Error ingesting like events: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiError("Failed to ingest like events: " + e.getMessage(),
+                            HttpStatus.INTERNAL_SERVER_ERROR.value()));
+        }
+    }
+
     /**
      * Deduct points from a user (admin action)
      */
@@ -175,6 +202,76 @@ public class TripFluencerPointsController {
         }
     }
 
+    /**
+     * Get one page of a leaderboard (metric: total_points_earned, current_points, total_likes or tier)
+     */
+    @GetMapping("/leaderboard")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getLeaderboard(
+            @RequestParam(defaultValue = "total_points_earned") String metric,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication,
+            @RequestHeader("Authorization") String authHeader) {
+        try {
+            log.info("Admin {} is fetching the {} leaderboard, page {}", authentication.getName(), metric, page);
+
+            String token = authHeader.replace("Bearer ", "");
+            List<LeaderboardEntryDTO> entries = pointsService.getLeaderboard(metric, page, size, token);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("entries", entries);
+            response.put("metric", metric);
+            response.put("page", page);
+            response.put("size", size);
+            response.put("total", pointsService.getLeaderboardSize());
+
+            return ResponseEntity.ok(response);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
+        } catch (Exception e) {
+            log.error("Error fetching leaderboard: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiError("Failed to fetch leaderboard: " + e.getMessage(),
+                            HttpStatus.INTERNAL_SERVER_ERROR.value()));
+        }
+    }
+
+    /**
+     * Get the leaderboard rank of a user
+     */
+    @GetMapping("/leaderboard/user/{userId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getLeaderboardRank(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "total_points_earned") String metric,
+            Authentication authentication,
+            @RequestHeader("Authorization") String authHeader) {
+        try {
+            log.info("Admin {} is fetching the {} rank of user {}", authentication.getName(), metric, userId);
+
+            String token = authHeader.replace("Bearer ", "");
+            LeaderboardEntryDTO entry = pointsService.getLeaderboardRank(metric, userId, token);
+
+            if (entry == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiError("No active TripFluencer found for user: " + userId,
+                                HttpStatus.NOT_FOUND.value()));
+            }
+
+            return ResponseEntity.ok(entry);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
+        } catch (Exception e) {
+            log.error("Error fetching leaderboard rank: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiError("Failed to fetch leaderboard rank: " + e.getMessage(),
+                            HttpStatus.INTERNAL_SERVER_ERROR.value()));
+        }
+    }
+
     /**
      * Get statistics
      */
@@ -0,0 +1,16 @@
+package com.example.admin_service.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the admin columns needed to authenticate a request
+ */
+public interface AdminPrincipalView {
+    Long getId();
+    String getUsername();
+    String getEmail();
+    String getPassword();
+    String getRole();
+    Boolean getIsActive();
+    LocalDateTime getCreatedAt();
+}
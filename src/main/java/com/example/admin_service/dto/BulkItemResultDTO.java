@@ -0,0 +1,19 @@
+package com.example.admin_service.dto;
+
+import lombok.Data;
+
+/**
+ * Outcome of one item in a bulk operation
+ */
+@Data
+public class BulkItemResultDTO {
+    private Long id;
+    private String status; // SUCCESS, FAILED, TIMED_OUT (not attempted), UNKNOWN (in flight at the deadline)
+    private String error;
+
+    public BulkItemResultDTO(Long id, String status, String error) {
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+}
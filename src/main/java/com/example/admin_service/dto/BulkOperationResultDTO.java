@@ -0,0 +1,19 @@
+package com.example.admin_service.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Summary and per-item results of a bulk operation
+ */
+@Data
+public class BulkOperationResultDTO {
+    private int total;
+    private int successful;
+    private int failed;
+    private int timedOut; // Not attempted before the deadline
+    private int unknown; // Still in flight at the deadline; may have completed downstream
+    private long elapsedMs;
+    private List<BulkItemResultDTO> results;
+}
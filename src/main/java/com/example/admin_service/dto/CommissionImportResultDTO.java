@@ -0,0 +1,19 @@
+package com.example.admin_service.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk commission import
+ */
+@Data
+public class CommissionImportResultDTO {
+    private long received;
+    private long inserted;
+    private long duplicates; // Transaction ID already present (or repeated within the import)
+    private long invalid;
+    private long elapsedMs;
+    private List<String> errors = new ArrayList<>(); // First validation errors, by row number
+}
@@ -0,0 +1,16 @@
+package com.example.admin_service.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One keyset page of commissions, newest first
+ */
+@Data
+public class CommissionPageDTO {
+    private List<CommissionDTO> commissions;
+    private String nextCursor; // Opaque; pass back as "cursor" to fetch the next page
+    private boolean hasMore;
+    private Long total; // Only set when the total count was requested
+}
@@ -0,0 +1,15 @@
+package com.example.admin_service.dto;
+
+import com.example.admin_service.entity.Commission;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregated commission figures for one provider type, computed in SQL
+ */
+public interface CommissionTypeTotals {
+    Commission.ProviderType getProviderType();
+    BigDecimal getTotalCommissions();
+    BigDecimal getTotalRevenue();
+    Long getTransactionCount();
+}
@@ -0,0 +1,16 @@
+package com.example.admin_service.dto;
+
+import lombok.Data;
+
+/**
+ * One position on a TripFluencer leaderboard
+ */
+@Data
+public class LeaderboardEntryDTO {
+    private long rank;
+    private Long userId;
+    private String userName;
+    private String profileImage;
+    private long score;
+    private String tier;
+}
@@ -0,0 +1,13 @@
+package com.example.admin_service.dto;
+
+/**
+ * Current leaderboard metrics of one active TripFluencer (snapshot plus ledger tail), computed in SQL
+ */
+public interface LeaderboardScores {
+    Long getUserId();
+    Long getEarned();
+    Long getCurrentPoints();
+    Long getLikes();
+    Integer getFollowers();
+    String getTier();
+}
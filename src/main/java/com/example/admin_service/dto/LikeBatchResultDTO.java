@@ -0,0 +1,16 @@
+package com.example.admin_service.dto;
+
+import lombok.Data;
+
+/**
+ * Outcome of ingesting one batch of like events
+ */
+@Data
+public class LikeBatchResultDTO {
+    private int received;
+    private int accepted;
+    private int rejected; // Invalid events, events worth no points and events for users that are not TripFluencers
+    private int usersCredited;
+    private long pointsAwarded;
+    private long latencyMs;
+}
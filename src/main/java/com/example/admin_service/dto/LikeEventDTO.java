@@ -0,0 +1,12 @@
+package com.example.admin_service.dto;
+
+import lombok.Data;
+
+/**
+ * New likes received by a TripFluencer, as emitted by the feed service
+ */
+@Data
+public class LikeEventDTO {
+    private Long userId;
+    private Integer newLikes;
+}
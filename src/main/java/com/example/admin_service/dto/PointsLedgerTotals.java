@@ -0,0 +1,12 @@
+package com.example.admin_service.dto;
+
+/**
+ * Sum of the points ledger entries written after a user's last snapshot, computed in SQL
+ */
+public interface PointsLedgerTotals {
+    Long getUserId();
+    Long getDelta();
+    Long getEarned();
+    Long getUsed();
+    Long getLikes();
+}
@@ -0,0 +1,19 @@
+package com.example.admin_service.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * EXPLAIN result of one repository query
+ */
+@Data
+public class QueryPlanDTO {
+    private String query; // Repository and method, e.g. CommissionRepository.findByMonth
+    private String sql; // Statement explained, as generated for the call
+    private String rootNode;
+    private Double totalCost;
+    private List<String> sequentialScans; // Tables read with a sequential scan
+    private boolean flagged; // A sequentially scanned table is large enough to matter
+    private String error;
+}
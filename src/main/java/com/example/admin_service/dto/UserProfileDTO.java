@@ -0,0 +1,13 @@
+package com.example.admin_service.dto;
+
+import lombok.Data;
+
+/**
+ * User profile details returned by the user service
+ */
+@Data
+public class UserProfileDTO {
+    private String name;
+    private String email;
+    private String profileImage;
+}
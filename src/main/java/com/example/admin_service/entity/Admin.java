@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class Admin {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "admins_seq")
+    @SequenceGenerator(name = "admins_seq", sequenceName = "admins_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -1,6 +1,7 @@
 // entity/AdminPrincipal.java
 package com.example.admin_service.entity;
 
+import com.example.admin_service.dto.AdminPrincipalView;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,6 +18,19 @@ public class AdminPrincipal implements UserDetails {
         this.admin = admin;
     }
 
+    // Build from a projection; the wrapped Admin is detached and never managed by the persistence context
+    public AdminPrincipal(AdminPrincipalView view) {
+        Admin detached = new Admin();
+        detached.setId(view.getId());
+        detached.setUsername(view.getUsername());
+        detached.setEmail(view.getEmail());
+        detached.setPassword(view.getPassword());
+        detached.setRole(view.getRole());
+        detached.setIsActive(view.getIsActive());
+        detached.setCreatedAt(view.getCreatedAt());
+        this.admin = detached;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         // Admin has ROLE_ADMIN authority
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class Commission {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "commissions_seq")
+    @SequenceGenerator(name = "commissions_seq", sequenceName = "commissions_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "service_provider", nullable = false)
@@ -0,0 +1,50 @@
+package com.example.admin_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated commission totals per month, provider type and service provider.
+ * Maintained incrementally by CommissionService; a missing month is stored as an empty string
+ * so that the unique key can be used for upserts.
+ */
+@Entity
+@Table(name = "commission_rollups",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_commission_rollups_key",
+                columnNames = {"month", "provider_type", "service_provider"}))
+@Getter
+@Setter
+public class CommissionRollup {
+
+    @Id
+    // Kept on IDENTITY: rollups are only ever written by native upserts, never batched through Hibernate
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "month", nullable = false)
+    private String month;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "provider_type", nullable = false)
+    private Commission.ProviderType providerType;
+
+    @Column(name = "service_provider", nullable = false)
+    private String serviceProvider;
+
+    @Column(name = "total_revenue", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalRevenue;
+
+    @Column(name = "total_commissions", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalCommissions;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
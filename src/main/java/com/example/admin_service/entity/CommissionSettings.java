@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class CommissionSettings {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "commission_settings_seq")
+    @SequenceGenerator(name = "commission_settings_seq", sequenceName = "commission_settings_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
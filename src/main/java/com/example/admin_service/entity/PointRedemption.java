@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class PointRedemption {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "point_redemptions_seq")
+    @SequenceGenerator(name = "point_redemptions_seq", sequenceName = "point_redemptions_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
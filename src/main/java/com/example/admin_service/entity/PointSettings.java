@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class PointSettings {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "point_settings_seq")
+    @SequenceGenerator(name = "point_settings_seq", sequenceName = "point_settings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "tier_name", nullable = false, unique = true)
@@ -0,0 +1,104 @@
+package com.example.admin_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.SourceType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change to a TripFluencer's points. The ledger is append-only: balances are the snapshot kept on
+ * TripFluencerPoints plus the entries written after it (see PointsLedgerService).
+ * "After" is decided by txid, the id of the writing transaction, not by the entry id: ids are taken in
+ * insert order but become visible in commit order.
+ */
+@Entity
+@Immutable
+// Ledger tails are read through idx_points_ledger_user_id_txid (db/migration/V5__ledger_commit_watermark.sql)
+@Table(name = "points_ledger")
+@Getter
+@Setter
+public class PointsLedgerEntry {
+
+    public static final String SOURCE_ADMIN_ADD = "ADMIN_ADD";
+    public static final String SOURCE_ADMIN_DEDUCT = "ADMIN_DEDUCT";
+    public static final String SOURCE_LIKES = "LIKES";
+    public static final String SOURCE_REDEMPTION = "REDEMPTION";
+    public static final String SOURCE_REDEMPTION_CANCEL = "REDEMPTION_CANCEL";
+
+    @Id
+    // Kept on IDENTITY: entries are written one per transaction or by plain JDBC batches
+    // (LikeIngestionService), so a pooled sequence would not let Hibernate batch anything
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Column(name = "delta", nullable = false, updatable = false)
+    private Integer delta; // Change to current points
+
+    @Column(name = "earned_delta", nullable = false, updatable = false)
+    private Integer earnedDelta;
+
+    @Column(name = "used_delta", nullable = false, updatable = false)
+    private Integer usedDelta;
+
+    @Column(name = "likes_delta", nullable = false, updatable = false)
+    private Integer likesDelta;
+
+    @Column(name = "reason", updatable = false)
+    private String reason;
+
+    @Column(name = "source", nullable = false, updatable = false)
+    private String source; // ADMIN_ADD, ADMIN_DEDUCT, LIKES, REDEMPTION, REDEMPTION_CANCEL
+
+    @Column(name = "reference_id", updatable = false)
+    private Long referenceId; // e.g. the redemption this entry belongs to
+
+    @Column(name = "txid", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default (pg_current_xact_id()::text::bigint)")
+    private Long txid; // Transaction that wrote the entry, filled in by the database
+
+    @Column(name = "event_time", nullable = false, updatable = false)
+    @CreationTimestamp(source = SourceType.DB)
+    private LocalDateTime eventTime;
+
+    public PointsLedgerEntry() {
+    }
+
+    private PointsLedgerEntry(Long userId, int delta, int earnedDelta, int usedDelta, int likesDelta,
+                              String reason, String source) {
+        this.userId = userId;
+        this.delta = delta;
+        this.earnedDelta = earnedDelta;
+        this.usedDelta = usedDelta;
+        this.likesDelta = likesDelta;
+        this.reason = reason;
+        this.source = source;
+    }
+
+    /**
+     * Points earned (admin credit or likes)
+     */
+    public static PointsLedgerEntry credit(Long userId, int points, int likes, String reason, String source) {
+        return new PointsLedgerEntry(userId, points, points, 0, likes, reason, source);
+    }
+
+    /**
+     * Points spent (admin deduction or redemption)
+     */
+    public static PointsLedgerEntry debit(Long userId, int points, String reason, String source) {
+        return new PointsLedgerEntry(userId, -points, 0, points, 0, reason, source);
+    }
+
+    /**
+     * Points returned from a cancelled redemption; they are counted as earned again, as before the ledger
+     */
+    public static PointsLedgerEntry refund(Long userId, int points, String reason, String source) {
+        return new PointsLedgerEntry(userId, points, points, -points, 0, reason, source);
+    }
+}
@@ -17,7 +17,8 @@ import java.util.List;
 public class SubscriptionPlan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subscription_plans_seq")
+    @SequenceGenerator(name = "subscription_plans_seq", sequenceName = "subscription_plans_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -4,21 +4,28 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 /**
- * Entity to track points for individual TripFluencers
+ * Entity to track points for individual TripFluencers.
+ * The point, usage and like counters are a snapshot: they include every points_ledger entry written by a
+ * transaction before snapshotXid, and the later entries are added when balances are read (see PointsLedgerService).
+ * Only the periodic snapshot job moves the counters; entity saves write just the columns they changed
+ * (dynamic update) and are guarded by the version column.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "tripfluencer_points")
 @Getter
 @Setter
 public class TripFluencerPoints {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tripfluencer_points_seq")
+    @SequenceGenerator(name = "tripfluencer_points_seq", sequenceName = "tripfluencer_points_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false, unique = true)
@@ -45,6 +52,13 @@ public class TripFluencerPoints {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    @Column(name = "snapshot_xid", nullable = false, columnDefinition = "bigint default 0")
+    private Long snapshotXid = 0L; // Entries with txid below this are in the counters
+
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(name = "created_at")
     @CreationTimestamp
     private LocalDateTime createdAt;
@@ -70,28 +84,6 @@ public class TripFluencerPoints {
         this.totalLikes = totalLikes;
     }
 
-    /**
-     * Add points to the user's account
-     */
-    public void addPoints(Integer points) {
-        if (points > 0) {
-            this.currentPoints += points;
-            this.totalPointsEarned += points;
-        }
-    }
-
-    /**
-     * Deduct points when redeemed
-     */
-    public boolean deductPoints(Integer points) {
-        if (points > 0 && this.currentPoints >= points) {
-            this.currentPoints -= points;
-            this.pointsUsed += points;
-            return true;
-        }
-        return false;
-    }
-
     /**
      * Update tier based on followers
      */
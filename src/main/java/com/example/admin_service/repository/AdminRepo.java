@@ -1,10 +1,14 @@
 // repository/AdminRepo.java
 package com.example.admin_service.repository;
 
+import com.example.admin_service.dto.AdminPrincipalView;
 import com.example.admin_service.entity.Admin;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,4 +21,10 @@ public interface AdminRepo extends JpaRepository<Admin, Long> {
     boolean existsByEmail(String email);
 
     boolean existsByUsername(String username);
+
+    // Matches either unique column in one round trip (email and username are both indexed)
+    @Query("SELECT a.id AS id, a.username AS username, a.email AS email, a.password AS password, " +
+           "a.role AS role, a.isActive AS isActive, a.createdAt AS createdAt " +
+           "FROM Admin a WHERE a.email = :identifier OR a.username = :identifier")
+    List<AdminPrincipalView> findPrincipalsByEmailOrUsername(@Param("identifier") String identifier);
 }
\ No newline at end of file
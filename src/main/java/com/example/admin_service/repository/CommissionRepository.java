@@ -1,6 +1,8 @@
 package com.example.admin_service.repository;
 
+import com.example.admin_service.dto.CommissionTypeTotals;
 import com.example.admin_service.entity.Commission;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,29 +17,139 @@ public interface CommissionRepository extends JpaRepository<Commission, Long> {
 
     Optional<Commission> findByTransactionId(String transactionId);
 
-    List<Commission> findByProviderType(Commission.ProviderType providerType);
+    // Keyset pages ordered by (date, id) descending; rows strictly after the (date, id) cursor
 
-    List<Commission> findByServiceProvider(String serviceProvider);
+    @Query("SELECT c FROM Commission c WHERE " +
+           "c.date <= :date AND (c.date < :date OR c.id < :id) " +
+           "ORDER BY c.date DESC, c.id DESC")
+    List<Commission> findPageAfter(
+        @Param("date") LocalDate date,
+        @Param("id") Long id,
+        Pageable pageable
+    );
 
-    List<Commission> findByMonth(String month);
+    @Query("SELECT c FROM Commission c WHERE c.month = :month AND " +
+           "c.date <= :date AND (c.date < :date OR c.id < :id) " +
+           "ORDER BY c.date DESC, c.id DESC")
+    List<Commission> findPageByMonthAfter(
+        @Param("month") String month,
+        @Param("date") LocalDate date,
+        @Param("id") Long id,
+        Pageable pageable
+    );
 
-    List<Commission> findByDateBetween(LocalDate startDate, LocalDate endDate);
+    @Query("SELECT c FROM Commission c WHERE c.serviceProvider = :serviceProvider AND " +
+           "c.date <= :date AND (c.date < :date OR c.id < :id) " +
+           "ORDER BY c.date DESC, c.id DESC")
+    List<Commission> findPageByServiceProviderAfter(
+        @Param("serviceProvider") String serviceProvider,
+        @Param("date") LocalDate date,
+        @Param("id") Long id,
+        Pageable pageable
+    );
 
-    @Query("SELECT c FROM Commission c WHERE " +
+    @Query("SELECT c FROM Commission c WHERE c.providerType = :providerType AND " +
+           "c.date <= :date AND (c.date < :date OR c.id < :id) " +
+           "ORDER BY c.date DESC, c.id DESC")
+    List<Commission> findPageByProviderTypeAfter(
+        @Param("providerType") Commission.ProviderType providerType,
+        @Param("date") LocalDate date,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    @Query("SELECT c FROM Commission c WHERE c.date >= :startDate AND c.date <= :endDate AND " +
+           "c.date <= :date AND (c.date < :date OR c.id < :id) " +
+           "ORDER BY c.date DESC, c.id DESC")
+    List<Commission> findPageByDateBetweenAfter(
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        @Param("date") LocalDate date,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    @Query("SELECT c FROM Commission c WHERE (" +
+           "LOWER(c.serviceProvider) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(c.transactionId) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(c.businessRegNo) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
+           "c.date <= :date AND (c.date < :date OR c.id < :id) " +
+           "ORDER BY c.date DESC, c.id DESC")
+    List<Commission> searchPageAfter(
+        @Param("search") String search,
+        @Param("date") LocalDate date,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    long countByMonth(String month);
+
+    long countByServiceProvider(String serviceProvider);
+
+    long countByProviderType(Commission.ProviderType providerType);
+
+    long countByDateBetween(LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT COUNT(c) FROM Commission c WHERE " +
            "LOWER(c.serviceProvider) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(c.transactionId) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(c.businessRegNo) LIKE LOWER(CONCAT('%', :search, '%'))")
-    List<Commission> searchCommissions(@Param("search") String search);
+    long countSearchCommissions(@Param("search") String search);
 
-    @Query("SELECT c FROM Commission c WHERE c.providerType = :type AND c.month = :month")
-    List<Commission> findByProviderTypeAndMonth(
-        @Param("type") Commission.ProviderType type,
-        @Param("month") String month
+    // Postgres cannot infer the type of a date parameter that is only tested for NULL, hence the casts
+    @Query("SELECT c.providerType AS providerType, " +
+           "SUM(c.amount) AS totalCommissions, " +
+           "SUM(c.revenue) AS totalRevenue, " +
+           "COUNT(c) AS transactionCount " +
+           "FROM Commission c WHERE " +
+           "(:month IS NULL OR c.month = :month) AND " +
+           "(CAST(:startDate AS LocalDate) IS NULL OR c.date >= :startDate) AND " +
+           "(CAST(:endDate AS LocalDate) IS NULL OR c.date <= :endDate) " +
+           "GROUP BY c.providerType")
+    List<CommissionTypeTotals> sumByProviderType(
+        @Param("month") String month,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
     );
 
-    @Query("SELECT DISTINCT c.serviceProvider FROM Commission c ORDER BY c.serviceProvider")
-    List<String> findDistinctServiceProviders();
+    // Index-backed search modes (see db/migration/V1__commission_search_indexes.sql)
+
+    @Query(value = "SELECT c.* FROM commissions c WHERE " +
+           "lower(c.service_provider) LIKE :pattern OR " +
+           "lower(c.transaction_id) LIKE :pattern OR " +
+           "lower(c.business_reg_no) LIKE :pattern " +
+           "ORDER BY GREATEST(" +
+           "similarity(lower(c.service_provider), :term), " +
+           "similarity(lower(c.transaction_id), :term), " +
+           "similarity(lower(COALESCE(c.business_reg_no, '')), :term)) DESC, c.id DESC " +
+           "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Commission> searchRanked(
+        @Param("term") String term,
+        @Param("pattern") String pattern,
+        @Param("limit") int limit,
+        @Param("offset") int offset
+    );
+
+    @Query(value = "SELECT COUNT(*) FROM commissions c WHERE " +
+           "lower(c.service_provider) LIKE :pattern OR " +
+           "lower(c.transaction_id) LIKE :pattern OR " +
+           "lower(c.business_reg_no) LIKE :pattern",
+           nativeQuery = true)
+    long countMatching(@Param("pattern") String pattern);
+
+    // "C" collation so that idx_commissions_transaction_id_prefix_c serves both the prefix range and the order
+    @Query(value = "SELECT c.* FROM commissions c WHERE lower(c.transaction_id) COLLATE \"C\" LIKE :prefix " +
+           "ORDER BY lower(c.transaction_id) COLLATE \"C\", c.id " +
+           "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<Commission> searchByTransactionIdPrefix(
+        @Param("prefix") String prefix,
+        @Param("limit") int limit,
+        @Param("offset") int offset
+    );
 
-    @Query("SELECT DISTINCT c.month FROM Commission c ORDER BY c.month DESC")
-    List<String> findDistinctMonths();
+    @Query(value = "SELECT COUNT(*) FROM commissions c WHERE lower(c.transaction_id) COLLATE \"C\" LIKE :prefix",
+           nativeQuery = true)
+    long countByTransactionIdPrefix(@Param("prefix") String prefix);
 }
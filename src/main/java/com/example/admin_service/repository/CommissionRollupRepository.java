@@ -0,0 +1,79 @@
+package com.example.admin_service.repository;
+
+import com.example.admin_service.dto.CommissionTypeTotals;
+import com.example.admin_service.entity.CommissionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface CommissionRollupRepository extends JpaRepository<CommissionRollup, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO commission_rollups " +
+           "(month, provider_type, service_provider, total_revenue, total_commissions, transaction_count, updated_at) " +
+           "VALUES (:month, :providerType, :serviceProvider, :revenue, :amount, :count, now()) " +
+           "ON CONFLICT (month, provider_type, service_provider) DO UPDATE SET " +
+           "total_revenue = commission_rollups.total_revenue + EXCLUDED.total_revenue, " +
+           "total_commissions = commission_rollups.total_commissions + EXCLUDED.total_commissions, " +
+           "transaction_count = commission_rollups.transaction_count + EXCLUDED.transaction_count, " +
+           "updated_at = now()",
+           nativeQuery = true)
+    int applyDelta(
+        @Param("month") String month,
+        @Param("providerType") String providerType,
+        @Param("serviceProvider") String serviceProvider,
+        @Param("revenue") BigDecimal revenue,
+        @Param("amount") BigDecimal amount,
+        @Param("count") long count
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM commission_rollups WHERE month = :month AND provider_type = :providerType " +
+           "AND service_provider = :serviceProvider AND transaction_count <= 0",
+           nativeQuery = true)
+    int deleteIfEmpty(
+        @Param("month") String month,
+        @Param("providerType") String providerType,
+        @Param("serviceProvider") String serviceProvider
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM commission_rollups", nativeQuery = true)
+    int deleteAllRows();
+
+    // Conflicts with the ROW EXCLUSIVE lock every INSERT/UPDATE/DELETE takes, so applyDelta and the
+    // commission import wait for the rebuild's transaction (and the rebuild for theirs) to finish
+    @Modifying
+    @Query(value = "LOCK TABLE commission_rollups IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockAgainstWriters();
+
+    @Modifying
+    @Query(value = "INSERT INTO commission_rollups " +
+           "(month, provider_type, service_provider, total_revenue, total_commissions, transaction_count, updated_at) " +
+           "SELECT COALESCE(c.month, ''), c.provider_type, c.service_provider, " +
+           "SUM(c.revenue), SUM(c.amount), COUNT(*), now() " +
+           "FROM commissions c " +
+           "GROUP BY COALESCE(c.month, ''), c.provider_type, c.service_provider",
+           nativeQuery = true)
+    int rebuildFromCommissions();
+
+    @Query("SELECT r.providerType AS providerType, " +
+           "SUM(r.totalCommissions) AS totalCommissions, " +
+           "SUM(r.totalRevenue) AS totalRevenue, " +
+           "SUM(r.transactionCount) AS transactionCount " +
+           "FROM CommissionRollup r WHERE (:month IS NULL OR r.month = :month) " +
+           "GROUP BY r.providerType")
+    List<CommissionTypeTotals> sumByProviderType(@Param("month") String month);
+
+    @Query("SELECT DISTINCT r.serviceProvider FROM CommissionRollup r ORDER BY r.serviceProvider")
+    List<String> findDistinctServiceProviders();
+
+    @Query("SELECT DISTINCT r.month FROM CommissionRollup r WHERE r.month <> '' ORDER BY r.month DESC")
+    List<String> findDistinctMonths();
+}
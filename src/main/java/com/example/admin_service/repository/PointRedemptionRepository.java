@@ -2,7 +2,9 @@ package com.example.admin_service.repository;
 
 import com.example.admin_service.entity.PointRedemption;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -24,4 +26,12 @@ public interface PointRedemptionRepository extends JpaRepository<PointRedemption
 
     @Query("SELECT SUM(r.pointsUsed) FROM PointRedemption r")
     Long sumPointsUsed();
-}
\ No newline at end of file
+
+    /**
+     * Move a redemption from one status to another only if it is still in the expected status
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PointRedemption r SET r.status = :newStatus WHERE r.id = :id AND r.status = :expectedStatus")
+    int updateStatusIfCurrent(@Param("id") Long id, @Param("expectedStatus") String expectedStatus,
+                              @Param("newStatus") String newStatus);
+}
@@ -0,0 +1,77 @@
+package com.example.admin_service.repository;
+
+import com.example.admin_service.dto.PointsLedgerTotals;
+import com.example.admin_service.entity.PointsLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PointsLedgerRepository extends JpaRepository<PointsLedgerEntry, Long> {
+
+    List<PointsLedgerEntry> findByUserIdOrderByIdDesc(Long userId);
+
+    /**
+     * Ledger tail of one user: entries written by transactions from the given snapshot position on
+     */
+    @Query(value = "SELECT COALESCE(SUM(l.delta), 0) AS delta, " +
+                   "COALESCE(SUM(l.earned_delta), 0) AS earned, COALESCE(SUM(l.used_delta), 0) AS used, " +
+                   "COALESCE(SUM(l.likes_delta), 0) AS likes " +
+                   "FROM points_ledger l WHERE l.user_id = :userId AND l.txid >= :fromXid",
+           nativeQuery = true)
+    PointsLedgerTotals sumTail(@Param("userId") Long userId, @Param("fromXid") Long fromXid);
+
+    /**
+     * Ledger tails of many users, each after that user's own snapshot position; users without a tail are absent
+     */
+    @Query(value = "SELECT l.user_id AS \"userId\", SUM(l.delta) AS delta, SUM(l.earned_delta) AS earned, " +
+                   "SUM(l.used_delta) AS used, SUM(l.likes_delta) AS likes " +
+                   "FROM points_ledger l JOIN tripfluencer_points t ON t.user_id = l.user_id " +
+                   "WHERE l.user_id IN (:userIds) AND l.txid >= t.snapshot_xid " +
+                   "GROUP BY l.user_id",
+           nativeQuery = true)
+    List<PointsLedgerTotals> sumTails(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Points earned by active TripFluencers since their last snapshot
+     */
+    @Query(value = "SELECT COALESCE(SUM(l.earned_delta), 0) FROM points_ledger l " +
+                   "JOIN tripfluencer_points t ON t.user_id = l.user_id " +
+                   "WHERE t.is_active = true AND l.txid >= t.snapshot_xid",
+           nativeQuery = true)
+    Long sumEarnedTailOfActive();
+
+    /**
+     * Fold committed ledger entries into the snapshot columns of tripfluencer_points and advance each snapshot
+     * position to the xmin of this statement's snapshot. Every transaction below xmin has finished, so all the
+     * entries it wrote are visible now and no entry below the new position can commit later; entries of
+     * transactions still open stay in the tail, whatever their ids. The snapshot_xid check makes concurrent
+     * runs on several nodes apply each tail once. Returns the number of snapshots advanced.
+     */
+    @Modifying
+    @Query(value = "WITH horizon AS ( " +
+                   "  SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint AS xmin), " +
+                   "tail AS ( " +
+                   "  SELECT t.user_id, t.snapshot_xid AS base_xid, SUM(l.delta) AS delta, " +
+                   "         SUM(l.earned_delta) AS earned, SUM(l.used_delta) AS used, SUM(l.likes_delta) AS likes " +
+                   "  FROM tripfluencer_points t " +
+                   "  JOIN points_ledger l ON l.user_id = t.user_id AND l.txid >= t.snapshot_xid " +
+                   "  WHERE l.txid < (SELECT xmin FROM horizon) " +
+                   "  GROUP BY t.user_id, t.snapshot_xid) " +
+                   "UPDATE tripfluencer_points t SET " +
+                   "  current_points = t.current_points + tail.delta, " +
+                   "  total_points_earned = t.total_points_earned + tail.earned, " +
+                   "  points_used = t.points_used + tail.used, " +
+                   "  total_likes = t.total_likes + tail.likes, " +
+                   "  snapshot_xid = (SELECT xmin FROM horizon), " +
+                   "  version = t.version + 1, " +
+                   "  updated_at = now() " +
+                   "FROM tail WHERE t.user_id = tail.user_id AND t.snapshot_xid = tail.base_xid",
+           nativeQuery = true)
+    int foldCommittedEntries();
+}
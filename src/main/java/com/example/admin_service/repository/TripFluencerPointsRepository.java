@@ -1,10 +1,15 @@
 package com.example.admin_service.repository;
 
+import com.example.admin_service.dto.LeaderboardScores;
 import com.example.admin_service.entity.TripFluencerPoints;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,15 +22,49 @@ public interface TripFluencerPointsRepository extends JpaRepository<TripFluencer
 
     List<TripFluencerPoints> findAllByTier(String tier);
 
-    @Query("SELECT t FROM TripFluencerPoints t WHERE t.isActive = true ORDER BY t.totalPointsEarned DESC")
-    List<TripFluencerPoints> findTopEarners();
-
-    @Query("SELECT t FROM TripFluencerPoints t WHERE t.isActive = true ORDER BY t.currentPoints DESC")
-    List<TripFluencerPoints> findByCurrentPointsDesc();
-
     @Query("SELECT COUNT(t) FROM TripFluencerPoints t WHERE t.isActive = true")
     Long countActiveTripFluencers();
 
     @Query("SELECT SUM(t.totalPointsEarned) FROM TripFluencerPoints t WHERE t.isActive = true")
     Long sumTotalPointsEarned();
-}
\ No newline at end of file
+
+    /**
+     * Load a points record and lock its row, so deductions for one user are checked against the balance in turn
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TripFluencerPoints t WHERE t.userId = :userId")
+    Optional<TripFluencerPoints> findByUserIdForUpdate(@Param("userId") Long userId);
+
+    boolean existsByUserId(Long userId);
+
+    List<TripFluencerPoints> findAllByUserIdIn(Collection<Long> userIds);
+
+    /**
+     * Leaderboard metrics of active TripFluencers, one page in user id order after the given user id
+     */
+    @Query(value = LEADERBOARD_SCORES + "WHERE t.is_active = true AND t.user_id > :afterUserId " +
+                   LEADERBOARD_GROUP_BY + "ORDER BY t.user_id LIMIT :limit",
+           nativeQuery = true)
+    List<LeaderboardScores> findLeaderboardScoresAfter(@Param("afterUserId") Long afterUserId,
+                                                       @Param("limit") int limit);
+
+    /**
+     * Leaderboard metrics of the given users that are active TripFluencers
+     */
+    @Query(value = LEADERBOARD_SCORES + "WHERE t.is_active = true AND t.user_id IN (:userIds) " +
+                   LEADERBOARD_GROUP_BY,
+           nativeQuery = true)
+    List<LeaderboardScores> findLeaderboardScores(@Param("userIds") Collection<Long> userIds);
+
+    String LEADERBOARD_SCORES =
+            "SELECT t.user_id AS \"userId\", " +
+            "t.total_points_earned + COALESCE(SUM(l.earned_delta), 0) AS \"earned\", " +
+            "t.current_points + COALESCE(SUM(l.delta), 0) AS \"currentPoints\", " +
+            "t.total_likes + COALESCE(SUM(l.likes_delta), 0) AS \"likes\", " +
+            "t.followers AS \"followers\", t.tier AS \"tier\" " +
+            "FROM tripfluencer_points t " +
+            "LEFT JOIN points_ledger l ON l.user_id = t.user_id AND l.txid >= t.snapshot_xid ";
+
+    String LEADERBOARD_GROUP_BY =
+            "GROUP BY t.user_id, t.total_points_earned, t.current_points, t.total_likes, t.followers, t.tier ";
+}
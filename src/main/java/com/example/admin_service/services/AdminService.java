@@ -20,6 +20,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +31,8 @@ public class AdminService {
     private final AdminRepo adminRepo;
     private final PasswordEncoder passwordEncoder;
     private final JWTService jwtService;
+    private final TokenAuthenticationCache tokenAuthenticationCache;
+    private final ServiceProviderUserDetailsService userDetailsService;
     @Lazy
     private final AuthenticationManager authenticationManager;
 
@@ -147,6 +151,31 @@ public class AdminService {
                 .orElseThrow(() -> new BadRequestException("Admin not found"));
 
         admin.setIsActive(isActive);
-        return adminRepo.save(admin);
+        Admin updated = adminRepo.save(admin);
+
+        // Cached principals still carry the old status
+        evictPrincipalAfterCommit(updated.getUsername(), updated.getEmail());
+        return updated;
+    }
+
+    /**
+     * Drop the cached principal and tokens of an admin once the transaction commits; evicting earlier lets a
+     * concurrent request reload and re-cache the row as it was before the commit
+     */
+    private void evictPrincipalAfterCommit(String username, String email) {
+        Runnable evict = () -> {
+            userDetailsService.evictPrincipal(username, email);
+            tokenAuthenticationCache.invalidateUser(username);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict.run();
+            }
+        });
     }
 }
\ No newline at end of file
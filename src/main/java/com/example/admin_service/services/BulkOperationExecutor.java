@@ -0,0 +1,217 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.config.OutboundExecutors;
+import com.example.admin_service.dto.BulkItemResultDTO;
+import com.example.admin_service.dto.BulkOperationResultDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Runs bulk operations against downstream services with bounded concurrency,
+ * a per-host request rate limit and an overall deadline, reporting a result per item
+ */
+@Service
+@Slf4j
+public class BulkOperationExecutor {
+
+    private final ExecutorService executor;
+    private final double permitsPerSecond;
+    private final long deadlineMs;
+    private final Map<String, TokenBucket> hostBuckets = new ConcurrentHashMap<>();
+
+    public BulkOperationExecutor(OutboundExecutors outboundExecutors,
+                                 @Value("${bulk.concurrency:8}") int concurrency,
+                                 @Value("${bulk.rate-limit-per-host:20}") double permitsPerSecond,
+                                 @Value("${bulk.deadline-ms:30000}") long deadlineMs) {
+        this.executor = outboundExecutors.newBoundedExecutor("bulk-op-", concurrency);
+        this.permitsPerSecond = permitsPerSecond;
+        this.deadlineMs = deadlineMs;
+    }
+
+    // Item states: the worker moves PENDING -> CALLING just before the downstream call, the caller
+    // moves PENDING -> ABANDONED at the deadline; whichever comes first decides whether the call happens
+    private static final int PENDING = 0;
+    private static final int CALLING = 1;
+    private static final int ABANDONED = 2;
+
+    /**
+     * Apply an operation to every id against the given host. An item succeeds when the operation
+     * returns a value accepted by isSuccess. At the deadline, items whose call has not started are
+     * dropped (TIMED_OUT); items whose call is in flight are reported as UNKNOWN, since the blocking
+     * HTTP call cannot be interrupted and may still complete downstream. Repeated ids are applied
+     * and reported once.
+     */
+    public <T> BulkOperationResultDTO execute(List<Long> ids, String host,
+                                              BulkOperation<T> operation, Predicate<T> isSuccess) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        TokenBucket bucket = hostBuckets.computeIfAbsent(host, h -> new TokenBucket(permitsPerSecond));
+
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        Map<Long, Future<BulkItemResultDTO>> futures = new LinkedHashMap<>();
+        Map<Long, AtomicInteger> states = new LinkedHashMap<>();
+        for (Long id : uniqueIds) {
+            AtomicInteger state = new AtomicInteger(PENDING);
+            states.put(id, state);
+            futures.put(id, executor.submit(() -> runItem(id, state, bucket, deadline, operation, isSuccess)));
+        }
+
+        List<BulkItemResultDTO> results = new ArrayList<>(uniqueIds.size());
+        int successful = 0;
+        int failed = 0;
+        int timedOut = 0;
+        int unknown = 0;
+
+        for (Map.Entry<Long, Future<BulkItemResultDTO>> entry : futures.entrySet()) {
+            BulkItemResultDTO result;
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                result = entry.getValue().get(remaining, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                result = abandon(entry.getKey(), states.get(entry.getKey()), entry.getValue(),
+                        "TIMED_OUT", "Deadline exceeded");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result = abandon(entry.getKey(), states.get(entry.getKey()), entry.getValue(),
+                        "FAILED", "Interrupted");
+            } catch (ExecutionException e) {
+                result = new BulkItemResultDTO(entry.getKey(), "FAILED", e.getCause().getMessage());
+            }
+
+            switch (result.getStatus()) {
+                case "SUCCESS" -> successful++;
+                case "TIMED_OUT" -> timedOut++;
+                case "UNKNOWN" -> unknown++;
+                default -> failed++;
+            }
+            results.add(result);
+        }
+
+        BulkOperationResultDTO summary = new BulkOperationResultDTO();
+        summary.setTotal(uniqueIds.size());
+        summary.setSuccessful(successful);
+        summary.setFailed(failed);
+        summary.setTimedOut(timedOut);
+        summary.setUnknown(unknown);
+        summary.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        summary.setResults(results);
+
+        log.info("Bulk operation against {} finished: {} ok, {} failed, {} timed out, {} unknown in {} ms",
+                host, successful, failed, timedOut, unknown, summary.getElapsedMs());
+        return summary;
+    }
+
+    /**
+     * Give up on an item at the deadline. Cancelling only stops items that have not started their
+     * downstream call; one already in flight keeps running and its outcome is unknown.
+     */
+    private BulkItemResultDTO abandon(Long id, AtomicInteger state, Future<BulkItemResultDTO> future,
+                                      String status, String error) {
+        future.cancel(true);
+        if (state.compareAndSet(PENDING, ABANDONED)) {
+            return new BulkItemResultDTO(id, status, error);
+        }
+        return new BulkItemResultDTO(id, "UNKNOWN",
+                error + " while the request was in flight; it may still complete downstream");
+    }
+
+    private <T> BulkItemResultDTO runItem(Long id, AtomicInteger state, TokenBucket bucket, long deadline,
+                                          BulkOperation<T> operation, Predicate<T> isSuccess) {
+        try {
+            long waitNanos = bucket.reserve(deadline);
+            if (waitNanos < 0) {
+                return new BulkItemResultDTO(id, "TIMED_OUT", "Rate limit wait exceeds deadline");
+            }
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    bucket.refund();
+                    throw e;
+                }
+            }
+            if (!state.compareAndSet(PENDING, CALLING)) {
+                bucket.refund();
+                return new BulkItemResultDTO(id, "TIMED_OUT", "Deadline exceeded");
+            }
+
+            T value = operation.apply(id);
+            return isSuccess.test(value)
+                    ? new BulkItemResultDTO(id, "SUCCESS", null)
+                    : new BulkItemResultDTO(id, "FAILED", "Downstream service returned no result");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new BulkItemResultDTO(id, "TIMED_OUT", "Deadline exceeded");
+        } catch (Exception e) {
+            log.error("Bulk operation failed for {}: {}", id, e.getMessage());
+            return new BulkItemResultDTO(id, "FAILED", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * One unit of work in a bulk operation
+     */
+    @FunctionalInterface
+    public interface BulkOperation<T> {
+        T apply(Long id) throws Exception;
+    }
+
+    /**
+     * Reservation-based token bucket: callers take a permit immediately and wait out any debt.
+     * A permit is only taken when it becomes available before the caller's deadline.
+     */
+    private static class TokenBucket {
+        private final double permitsPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(double permitsPerSecond) {
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, permitsPerSecond);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * Take a permit and return how long to wait for it, or -1 (taking nothing) if it would only be
+         * available after the deadline
+         */
+        private synchronized long reserve(long deadline) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+
+            long waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / permitsPerNano);
+            if (now + waitNanos > deadline) {
+                return -1;
+            }
+            tokens -= 1;
+            return waitNanos;
+        }
+
+        /**
+         * Return a permit that was reserved but not used
+         */
+        private synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+    }
+}
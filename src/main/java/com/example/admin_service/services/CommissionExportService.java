@@ -0,0 +1,254 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.dto.CommissionDTO;
+import com.example.admin_service.entity.Commission;
+import com.example.admin_service.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams commissions to an export file (CSV or NDJSON) straight from a forward-only database cursor.
+ * Rows are fetched in batches of commission.export.fetch-size inside a read-only transaction (Postgres only
+ * uses a cursor outside auto-commit) and written as they arrive, so heap use does not grow with the export.
+ * Each running export holds a pooled connection for its whole duration, so at most
+ * commission.export.max-concurrent run at once; they get their own (long) timeout, commission.export.timeout-ms.
+ */
+@Service
+@Slf4j
+public class CommissionExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String[] CSV_HEADER = {
+            "id", "service_provider", "provider_type", "amount", "percentage", "date", "transaction_id", "revenue",
+            "business_reg_no", "payment_method", "customer_count", "month", "location", "phone", "website", "address"
+    };
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final Semaphore exportSlots;
+    private final long timeoutMs;
+
+    public CommissionExportService(DataSource dataSource,
+                                   ObjectMapper objectMapper,
+                                   @Value("${commission.export.fetch-size:1000}") int fetchSize,
+                                   @Value("${commission.export.max-concurrent:2}") int maxConcurrent,
+                                   @Value("${commission.export.timeout-ms:3600000}") long timeoutMs) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        // Plain JDBC transactions: the request's (open-in-view) EntityManager is closed when an export times out,
+        // and the export must still be able to roll back and return its connection
+        this.readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.exportSlots = new Semaphore(Math.max(1, maxConcurrent));
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Claim one of the export slots without waiting; false when the maximum number of exports are running.
+     * A claimed slot must be given back with releaseSlot once the export has finished or failed
+     */
+    public boolean tryAcquireSlot() {
+        return exportSlots.tryAcquire();
+    }
+
+    public void releaseSlot() {
+        exportSlots.release();
+    }
+
+    /**
+     * How long a single export may stream before the request is timed out
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Parse the requested export format
+     */
+    public Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported export format: " + format + " (use csv or ndjson)");
+        }
+    }
+
+    /**
+     * Check the export filters before the response is committed
+     */
+    public void validateFilters(LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+    }
+
+    /**
+     * Write the commissions matching the filters (all optional) to the output, oldest first
+     */
+    public void export(Format format, String month, Commission.ProviderType providerType,
+                       LocalDate startDate, LocalDate endDate, OutputStream output) throws IOException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, service_provider, provider_type, amount, percentage, date, transaction_id, revenue, " +
+                "business_reg_no, payment_method, customer_count, month, location, phone, website, address " +
+                "FROM commissions WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (month != null) {
+            sql.append(" AND month = ?");
+            params.add(month);
+        }
+        if (providerType != null) {
+            sql.append(" AND provider_type = ?");
+            params.add(providerType.name());
+        }
+        if (startDate != null) {
+            sql.append(" AND date >= ?");
+            params.add(Date.valueOf(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND date <= ?");
+            params.add(Date.valueOf(endDate));
+        }
+        sql.append(" ORDER BY date, id");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == Format.CSV ? csvWriter(writer) : ndjsonWriter(writer);
+
+        long start = System.currentTimeMillis();
+        long[] rows = {0};
+        try {
+            readOnlyTransaction.executeWithoutResult(status ->
+                    cursorJdbcTemplate.query(sql.toString(), rs -> {
+                        try {
+                            rowWriter.write(rs);
+                        } catch (IOException e) {
+                            // Typically the client went away; abandon the cursor
+                            throw new UncheckedIOException(e);
+                        }
+                        rows[0]++;
+                    }, params.toArray()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+
+        log.info("Exported {} commissions as {} in {} ms", rows[0], format, System.currentTimeMillis() - start);
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    private RowWriter csvWriter(Writer writer) throws IOException {
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write("\r\n");
+        return rs -> {
+            for (int column = 1; column <= CSV_HEADER.length; column++) {
+                if (column > 1) {
+                    writer.write(',');
+                }
+                writeCsvField(writer, rs.getString(column));
+            }
+            writer.write("\r\n");
+        };
+    }
+
+    private RowWriter ndjsonWriter(Writer writer) {
+        ObjectWriter rowJson = objectMapper.writerFor(CommissionDTO.class);
+        return rs -> {
+            writer.write(rowJson.writeValueAsString(toDTO(rs)));
+            writer.write('\n');
+        };
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        // Keep spreadsheet applications from evaluating text fields as formulas
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 && !isNumber(value)) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static CommissionDTO toDTO(ResultSet rs) throws SQLException {
+        CommissionDTO dto = new CommissionDTO();
+        dto.setId(rs.getLong("id"));
+        dto.setServiceProvider(rs.getString("service_provider"));
+        dto.setProviderType(Commission.ProviderType.valueOf(rs.getString("provider_type")));
+        dto.setAmount(rs.getBigDecimal("amount"));
+        dto.setPercentage(rs.getBigDecimal("percentage"));
+        dto.setDate(rs.getObject("date", LocalDate.class));
+        dto.setTransactionId(rs.getString("transaction_id"));
+        dto.setRevenue(rs.getBigDecimal("revenue"));
+        dto.setBusinessRegNo(rs.getString("business_reg_no"));
+        dto.setPaymentMethod(rs.getString("payment_method"));
+        dto.setCustomerCount(rs.getObject("customer_count", Integer.class));
+        dto.setMonth(rs.getString("month"));
+        dto.setLocation(rs.getString("location"));
+        dto.setPhone(rs.getString("phone"));
+        dto.setWebsite(rs.getString("website"));
+        dto.setAddress(rs.getString("address"));
+        return dto;
+    }
+}
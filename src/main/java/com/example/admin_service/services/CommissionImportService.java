@@ -0,0 +1,370 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.dto.CommissionImportResultDTO;
+import com.example.admin_service.dto.CreateCommissionDTO;
+import com.example.admin_service.entity.Commission;
+import com.example.admin_service.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of commissions from a JSON array or a CSV file (with a header row; snake_case as produced by
+ * the export, or camelCase). The input is parsed and validated one row at a time and valid rows are written
+ * in chunks, each chunk being one multi-row INSERT ... ON CONFLICT (transaction_id) DO NOTHING in its own
+ * transaction. The same statement adds the rows it actually inserted to commission_rollups, so re-importing
+ * a file is harmless: existing transactions are counted as duplicates and change nothing.
+ * <p>
+ * Ids come from commissions_seq the way Hibernate takes them (see Commission): each nextval reserves the
+ * block of 50 ids ending at the value returned, so a chunk costs one nextval per 50 rows, not one per row.
+ */
+@Service
+@Slf4j
+public class CommissionImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int INSERT_PARAMETERS = 16;
+    // Increment of commissions_seq, the allocationSize of Commission.id
+    private static final int ID_BLOCK_SIZE = 50;
+    // Postgres accepts at most 32767 bind parameters per statement
+    private static final int MAX_CHUNK_SIZE = Short.MAX_VALUE / INSERT_PARAMETERS;
+
+    private static final String INSERT_PREFIX =
+            "WITH inserted AS (" +
+            "  INSERT INTO commissions (id, service_provider, provider_type, amount, percentage, date, transaction_id, " +
+            "    revenue, business_reg_no, payment_method, customer_count, month, location, phone, website, address, " +
+            "    created_at, updated_at) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())";
+    private static final String INSERT_SUFFIX =
+            "  ON CONFLICT (transaction_id) DO NOTHING " +
+            "  RETURNING month, provider_type, service_provider, revenue, amount), " +
+            "rollups AS (" +
+            "  INSERT INTO commission_rollups " +
+            "    (month, provider_type, service_provider, total_revenue, total_commissions, transaction_count, updated_at) " +
+            "  SELECT COALESCE(month, ''), provider_type, service_provider, SUM(revenue), SUM(amount), COUNT(*), now() " +
+            "  FROM inserted GROUP BY COALESCE(month, ''), provider_type, service_provider " +
+            "  ON CONFLICT (month, provider_type, service_provider) DO UPDATE SET " +
+            "    total_revenue = commission_rollups.total_revenue + EXCLUDED.total_revenue, " +
+            "    total_commissions = commission_rollups.total_commissions + EXCLUDED.total_commissions, " +
+            "    transaction_count = commission_rollups.transaction_count + EXCLUDED.transaction_count, " +
+            "    updated_at = now()) " +
+            "SELECT COUNT(*) FROM inserted";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final Validator validator;
+    private final int chunkSize;
+    private final String fullChunkSql;
+
+    public CommissionImportService(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   ObjectMapper objectMapper,
+                                   Validator validator,
+                                   @Value("${commission.import.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+        this.fullChunkSql = insertSql(this.chunkSize);
+    }
+
+    /**
+     * Import a JSON array of commissions
+     */
+    public CommissionImportResultDTO importJson(InputStream input) throws IOException {
+        Import run = new Import();
+        try (JsonParser parser = objectMapper.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Expected a JSON array of commissions");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                long row = run.nextRow();
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    run.invalid(row, "not a JSON object");
+                    continue;
+                }
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    run.accept(row, objectMapper.treeToValue(node, CreateCommissionDTO.class));
+                } catch (JsonProcessingException e) {
+                    run.invalid(row, e.getOriginalMessage());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            run.abort(e.getOriginalMessage());
+        }
+        return run.finish();
+    }
+
+    /**
+     * Import a CSV file with a header row
+     */
+    public CommissionImportResultDTO importCsv(InputStream input) throws IOException {
+        Import run = new Import();
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<Map<String, String>> rows = csvMapper.readerFor(Map.class).with(schema).readValues(input)) {
+            while (rows.hasNextValue()) {
+                Map<String, String> values = rows.nextValue();
+                long row = run.nextRow();
+                try {
+                    run.accept(row, fromCsv(values));
+                } catch (IllegalArgumentException e) {
+                    run.invalid(row, e.getMessage());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            run.abort(e.getOriginalMessage());
+        } catch (RuntimeJsonMappingException e) {
+            run.abort(e.getMessage());
+        }
+        return run.finish();
+    }
+
+    /**
+     * State of one import: counts, reported errors and the rows waiting for the next chunk
+     */
+    private final class Import {
+        private final CommissionImportResultDTO result = new CommissionImportResultDTO();
+        private final List<CreateCommissionDTO> pending = new ArrayList<>(chunkSize);
+        private final long start = System.currentTimeMillis();
+        private long firstPendingRow;
+
+        long nextRow() {
+            result.setReceived(result.getReceived() + 1);
+            return result.getReceived();
+        }
+
+        void accept(long row, CreateCommissionDTO dto) {
+            Set<ConstraintViolation<CreateCommissionDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                invalid(row, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            if (pending.isEmpty()) {
+                firstPendingRow = row;
+            }
+            pending.add(dto);
+            if (pending.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        void invalid(long row, String message) {
+            result.setInvalid(result.getInvalid() + 1);
+            reportError("Row " + row + ": " + message);
+        }
+
+        // Malformed input: nothing after this point can be read, rows before it are still imported
+        void abort(String message) {
+            reportError("Malformed input after row " + result.getReceived() + ": " + message);
+        }
+
+        CommissionImportResultDTO finish() {
+            flush();
+            result.setElapsedMs(System.currentTimeMillis() - start);
+            log.info("Imported commissions: {} received, {} inserted, {} duplicates, {} invalid in {} ms",
+                    result.getReceived(), result.getInserted(), result.getDuplicates(), result.getInvalid(),
+                    result.getElapsedMs());
+            return result;
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                long inserted = insertChunk(pending);
+                result.setInserted(result.getInserted() + inserted);
+                result.setDuplicates(result.getDuplicates() + pending.size() - inserted);
+            } catch (RuntimeException e) {
+                log.error("Failed to import commissions from row {}: {}", firstPendingRow, e.getMessage(), e);
+                result.setInvalid(result.getInvalid() + pending.size());
+                reportError("Rows " + firstPendingRow + "-" + (firstPendingRow + pending.size() - 1) +
+                        " were rejected by the database: " + e.getMessage());
+            }
+            pending.clear();
+        }
+
+        private void reportError(String error) {
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(error);
+            }
+        }
+    }
+
+    /**
+     * Insert one chunk in its own transaction; returns the number of rows actually inserted
+     */
+    private long insertChunk(List<CreateCommissionDTO> rows) {
+        String sql = rows.size() == chunkSize ? fullChunkSql : insertSql(rows.size());
+        Long inserted = transactionTemplate.execute(status -> {
+            long[] ids = allocateIds(rows.size());
+            return jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                int index = 1;
+                for (int i = 0; i < rows.size(); i++) {
+                    index = bind(ps, index, ids[i], rows.get(i));
+                }
+                return ps;
+            }, rs -> rs.next() ? rs.getLong(1) : 0L);
+        });
+        return inserted != null ? inserted : 0L;
+    }
+
+    /**
+     * Reserve ids for the given number of rows, in one round trip; rows that turn out to be duplicates
+     * leave their ids unused
+     */
+    private long[] allocateIds(int count) {
+        List<Long> blocks = jdbcTemplate.queryForList(
+                "SELECT nextval('commissions_seq') FROM generate_series(1, ?)", Long.class,
+                (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = blocks.get(i / ID_BLOCK_SIZE) - ID_BLOCK_SIZE + 1 + i % ID_BLOCK_SIZE;
+        }
+        return ids;
+    }
+
+    private static int bind(PreparedStatement ps, int index, long id, CreateCommissionDTO dto) throws SQLException {
+        ps.setLong(index++, id);
+        ps.setString(index++, dto.getServiceProvider());
+        ps.setString(index++, dto.getProviderType().name());
+        ps.setBigDecimal(index++, dto.getAmount());
+        ps.setBigDecimal(index++, dto.getPercentage());
+        ps.setDate(index++, Date.valueOf(dto.getDate()));
+        ps.setString(index++, dto.getTransactionId());
+        ps.setBigDecimal(index++, dto.getRevenue());
+        ps.setString(index++, dto.getBusinessRegNo());
+        ps.setString(index++, dto.getPaymentMethod());
+        if (dto.getCustomerCount() != null) {
+            ps.setInt(index++, dto.getCustomerCount());
+        } else {
+            ps.setNull(index++, Types.INTEGER);
+        }
+        ps.setString(index++, dto.getMonth());
+        ps.setString(index++, dto.getLocation());
+        ps.setString(index++, dto.getPhone());
+        ps.setString(index++, dto.getWebsite());
+        ps.setString(index++, dto.getAddress());
+        return index;
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(INSERT_ROW);
+        }
+        return sql.append(INSERT_SUFFIX).toString();
+    }
+
+    /**
+     * Map a CSV record to a commission; headers may be snake_case or camelCase
+     */
+    private static CreateCommissionDTO fromCsv(Map<String, String> record) {
+        Map<String, String> values = new HashMap<>();
+        record.forEach((header, value) -> values.put(
+                header.replace("_", "").trim().toLowerCase(), csvValue(value)));
+
+        CreateCommissionDTO dto = new CreateCommissionDTO();
+        dto.setServiceProvider(values.get("serviceprovider"));
+        String providerType = values.get("providertype");
+        if (providerType != null) {
+            try {
+                dto.setProviderType(Commission.ProviderType.valueOf(providerType.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown provider type: " + providerType);
+            }
+        }
+        dto.setAmount(decimal(values, "amount"));
+        dto.setPercentage(decimal(values, "percentage"));
+        String date = values.get("date");
+        if (date != null) {
+            try {
+                dto.setDate(LocalDate.parse(date));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid date: " + date);
+            }
+        }
+        dto.setTransactionId(values.get("transactionid"));
+        dto.setRevenue(decimal(values, "revenue"));
+        dto.setBusinessRegNo(values.get("businessregno"));
+        dto.setPaymentMethod(values.get("paymentmethod"));
+        String customerCount = values.get("customercount");
+        if (customerCount != null) {
+            try {
+                dto.setCustomerCount(Integer.valueOf(customerCount));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid customer count: " + customerCount);
+            }
+        }
+        dto.setMonth(values.get("month"));
+        dto.setLocation(values.get("location"));
+        dto.setPhone(values.get("phone"));
+        dto.setWebsite(values.get("website"));
+        dto.setAddress(values.get("address"));
+        return dto;
+    }
+
+    private static BigDecimal decimal(Map<String, String> values, String column) {
+        String value = values.get(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    // Empty cells are missing values; undo the formula guard added by the CSV export
+    private static String csvValue(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        if (value.length() > 1 && value.charAt(0) == '\'' && "=+-@".indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+}
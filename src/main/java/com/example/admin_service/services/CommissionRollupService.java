@@ -0,0 +1,81 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.entity.Commission;
+import com.example.admin_service.repository.CommissionRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the commission_rollups table: revenue, commission amount and transaction count
+ * per (month, provider type, service provider)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CommissionRollupService {
+
+    private final CommissionRollupRepository rollupRepository;
+
+    /**
+     * Add a newly created commission to its rollup row (runs in the caller's transaction)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Commission commission) {
+        rollupRepository.applyDelta(
+                monthKey(commission.getMonth()),
+                commission.getProviderType().name(),
+                commission.getServiceProvider(),
+                commission.getRevenue(),
+                commission.getAmount(),
+                1
+        );
+    }
+
+    /**
+     * Remove a deleted commission from its rollup row (runs in the caller's transaction)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Commission commission) {
+        String month = monthKey(commission.getMonth());
+        String providerType = commission.getProviderType().name();
+
+        rollupRepository.applyDelta(
+                month,
+                providerType,
+                commission.getServiceProvider(),
+                commission.getRevenue().negate(),
+                commission.getAmount().negate(),
+                -1
+        );
+        rollupRepository.deleteIfEmpty(month, providerType, commission.getServiceProvider());
+    }
+
+    /**
+     * Rebuild the whole rollup table from the commissions table (backfill / repair). Rollup writers are
+     * locked out for the duration, so no delta lands between the delete and the re-insert: writers that
+     * already applied theirs have committed before the rebuild reads commissions, the rest apply theirs
+     * on top of the rebuilt rows.
+     */
+    @Transactional
+    public int rebuild() {
+        rollupRepository.lockAgainstWriters();
+        rollupRepository.deleteAllRows();
+        int rows = rollupRepository.rebuildFromCommissions();
+        log.info("Rebuilt commission rollups: {} rows", rows);
+        return rows;
+    }
+
+    /**
+     * Whether the rollup table has any rows yet
+     */
+    public boolean isEmpty() {
+        return rollupRepository.count() == 0;
+    }
+
+    private String monthKey(String month) {
+        return month != null ? month : "";
+    }
+}
@@ -1,19 +1,29 @@
 package com.example.admin_service.services;
 
 import com.example.admin_service.dto.CommissionDTO;
+import com.example.admin_service.dto.CommissionPageDTO;
+import com.example.admin_service.dto.CommissionTypeTotals;
 import com.example.admin_service.dto.CreateCommissionDTO;
 import com.example.admin_service.entity.Commission;
+import com.example.admin_service.exception.BadRequestException;
 import com.example.admin_service.repository.CommissionRepository;
+import com.example.admin_service.repository.CommissionRollupRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,15 +32,23 @@ import java.util.stream.Collectors;
 public class CommissionService {
 
     private final CommissionRepository commissionRepository;
+    private final CommissionRollupRepository rollupRepository;
+    private final CommissionRollupService rollupService;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_OFFSET = Integer.MAX_VALUE - MAX_PAGE_SIZE;
+
+    // Cursor used for the first page: sorts after every real (date, id)
+    private static final LocalDate FIRST_PAGE_DATE = LocalDate.of(9999, 12, 31);
+    private static final long FIRST_PAGE_ID = Long.MAX_VALUE;
 
     /**
-     * Get all commissions
+     * Get a page of all commissions, newest first
      */
-    public List<CommissionDTO> getAllCommissions() {
-        return commissionRepository.findAll()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CommissionPageDTO getCommissionsPage(String cursor, Integer limit, boolean includeTotal) {
+        return fetchPage(cursor, limit, commissionRepository::findPageAfter,
+                includeTotal, commissionRepository::count);
     }
 
     /**
@@ -52,67 +70,93 @@ public class CommissionService {
     }
 
     /**
-     * Get commissions by provider type
+     * Get a page of commissions by provider type
      */
-    public List<CommissionDTO> getCommissionsByProviderType(Commission.ProviderType providerType) {
-        return commissionRepository.findByProviderType(providerType)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CommissionPageDTO getCommissionsByProviderTypePage(Commission.ProviderType providerType, String cursor,
+                                                              Integer limit, boolean includeTotal) {
+        return fetchPage(cursor, limit,
+                (date, id, pageable) -> commissionRepository.findPageByProviderTypeAfter(providerType, date, id, pageable),
+                includeTotal, () -> commissionRepository.countByProviderType(providerType));
     }
 
     /**
-     * Get commissions by service provider
+     * Get a page of commissions by service provider
      */
-    public List<CommissionDTO> getCommissionsByServiceProvider(String serviceProvider) {
-        return commissionRepository.findByServiceProvider(serviceProvider)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CommissionPageDTO getCommissionsByServiceProviderPage(String serviceProvider, String cursor,
+                                                                 Integer limit, boolean includeTotal) {
+        return fetchPage(cursor, limit,
+                (date, id, pageable) -> commissionRepository.findPageByServiceProviderAfter(serviceProvider, date, id, pageable),
+                includeTotal, () -> commissionRepository.countByServiceProvider(serviceProvider));
     }
 
     /**
-     * Get commissions by month
+     * Get a page of commissions by month
      */
-    public List<CommissionDTO> getCommissionsByMonth(String month) {
-        return commissionRepository.findByMonth(month)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CommissionPageDTO getCommissionsByMonthPage(String month, String cursor,
+                                                       Integer limit, boolean includeTotal) {
+        return fetchPage(cursor, limit,
+                (date, id, pageable) -> commissionRepository.findPageByMonthAfter(month, date, id, pageable),
+                includeTotal, () -> commissionRepository.countByMonth(month));
     }
 
     /**
-     * Search commissions
+     * Search commissions, one page at a time.
+     * CONTAINS pages newest first by (date, id); RANKED orders by trigram similarity to the term;
+     * PREFIX matches the start of the transaction ID.
      */
-    public List<CommissionDTO> searchCommissions(String searchTerm) {
-        return commissionRepository.searchCommissions(searchTerm)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CommissionPageDTO searchCommissionsPage(String searchTerm, SearchMode mode, String cursor,
+                                                   Integer limit, boolean includeTotal) {
+        String term = searchTerm.trim().toLowerCase();
+        // A blank term would match every row, so the index could not narrow the scan
+        if (term.isEmpty() && mode != SearchMode.CONTAINS) {
+            throw new BadRequestException("Search term must not be blank");
+        }
+
+        switch (mode) {
+            case RANKED: {
+                String pattern = "%" + escapeLike(term) + "%";
+                return fetchOffsetPage(cursor, limit,
+                        (pageSize, offset) -> commissionRepository.searchRanked(term, pattern, pageSize, offset),
+                        includeTotal, () -> commissionRepository.countMatching(pattern));
+            }
+            case PREFIX: {
+                String prefix = escapeLike(term) + "%";
+                return fetchOffsetPage(cursor, limit,
+                        (pageSize, offset) -> commissionRepository.searchByTransactionIdPrefix(prefix, pageSize, offset),
+                        includeTotal, () -> commissionRepository.countByTransactionIdPrefix(prefix));
+            }
+            default:
+                return fetchPage(cursor, limit,
+                        (date, id, pageable) -> commissionRepository.searchPageAfter(searchTerm, date, id, pageable),
+                        includeTotal, () -> commissionRepository.countSearchCommissions(searchTerm));
+        }
     }
 
     /**
-     * Get commissions by date range
+     * Get a page of commissions by date range (both dates inclusive)
      */
-    public List<CommissionDTO> getCommissionsByDateRange(LocalDate startDate, LocalDate endDate) {
-        return commissionRepository.findByDateBetween(startDate, endDate)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CommissionPageDTO getCommissionsByDateRangePage(LocalDate startDate, LocalDate endDate, String cursor,
+                                                           Integer limit, boolean includeTotal) {
+        if (startDate.isAfter(endDate)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+        return fetchPage(cursor, limit,
+                (date, id, pageable) -> commissionRepository.findPageByDateBetweenAfter(startDate, endDate, date, id, pageable),
+                includeTotal, () -> commissionRepository.countByDateBetween(startDate, endDate));
     }
 
     /**
      * Get distinct service providers
      */
     public List<String> getDistinctServiceProviders() {
-        return commissionRepository.findDistinctServiceProviders();
+        return rollupRepository.findDistinctServiceProviders();
     }
 
     /**
      * Get distinct months
      */
     public List<String> getDistinctMonths() {
-        return commissionRepository.findDistinctMonths();
+        return rollupRepository.findDistinctMonths();
     }
 
     /**
@@ -143,6 +187,7 @@ public class CommissionService {
         commission.setAddress(dto.getAddress());
 
         Commission saved = commissionRepository.save(commission);
+        rollupService.recordCreated(saved);
         log.info("Created new commission: {} for provider: {}", saved.getTransactionId(), saved.getServiceProvider());
 
         return convertToDTO(saved);
@@ -157,53 +202,199 @@ public class CommissionService {
                 .orElseThrow(() -> new RuntimeException("Commission not found with id: " + id));
 
         commissionRepository.delete(commission);
+        rollupService.recordDeleted(commission);
         log.info("Deleted commission: {}", commission.getTransactionId());
     }
 
     /**
-     * Calculate statistics
+     * Rebuild the commission rollup table from all commissions
      */
-    public Map<String, Object> calculateStatistics() {
-        List<Commission> allCommissions = commissionRepository.findAll();
-
-        Map<String, Object> stats = new HashMap<>();
+    public int rebuildRollups() {
+        return rollupService.rebuild();
+    }
 
-        // Total commissions and revenue
-        BigDecimal totalCommissions = allCommissions.stream()
-                .map(Commission::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Calculate statistics, optionally restricted to a month and/or a date range.
+     * Totals are aggregated by provider type in the database, so no commission rows are loaded:
+     * month-level queries read the rollup table, date ranges aggregate the commissions table.
+     */
+    public Map<String, Object> calculateStatistics(String month, LocalDate startDate, LocalDate endDate) {
+        List<CommissionTypeTotals> totalsByType = (startDate == null && endDate == null)
+                ? rollupRepository.sumByProviderType(month)
+                : commissionRepository.sumByProviderType(month, startDate, endDate);
 
-        BigDecimal totalRevenue = allCommissions.stream()
-                .map(Commission::getRevenue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        stats.put("totalCommissions", totalCommissions);
-        stats.put("totalRevenue", totalRevenue);
-        stats.put("totalTransactions", allCommissions.size());
+        BigDecimal totalCommissions = BigDecimal.ZERO;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        long totalTransactions = 0;
 
         // By provider type
         Map<String, BigDecimal> commissionsByType = new HashMap<>();
         Map<String, Long> countByType = new HashMap<>();
 
         for (Commission.ProviderType type : Commission.ProviderType.values()) {
-            List<Commission> typeCommissions = allCommissions.stream()
-                    .filter(c -> c.getProviderType() == type)
-                    .collect(Collectors.toList());
+            commissionsByType.put(type.name(), BigDecimal.ZERO);
+            countByType.put(type.name(), 0L);
+        }
 
-            BigDecimal typeTotal = typeCommissions.stream()
-                    .map(Commission::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        for (CommissionTypeTotals totals : totalsByType) {
+            BigDecimal typeCommissions = totals.getTotalCommissions() != null ? totals.getTotalCommissions() : BigDecimal.ZERO;
+            BigDecimal typeRevenue = totals.getTotalRevenue() != null ? totals.getTotalRevenue() : BigDecimal.ZERO;
+            long typeCount = totals.getTransactionCount() != null ? totals.getTransactionCount() : 0L;
 
-            commissionsByType.put(type.name(), typeTotal);
-            countByType.put(type.name(), (long) typeCommissions.size());
+            commissionsByType.put(totals.getProviderType().name(), typeCommissions);
+            countByType.put(totals.getProviderType().name(), typeCount);
+
+            totalCommissions = totalCommissions.add(typeCommissions);
+            totalRevenue = totalRevenue.add(typeRevenue);
+            totalTransactions += typeCount;
         }
 
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalCommissions", totalCommissions);
+        stats.put("totalRevenue", totalRevenue);
+        stats.put("totalTransactions", totalTransactions);
         stats.put("commissionsByType", commissionsByType);
         stats.put("countByType", countByType);
 
         return stats;
     }
 
+    /**
+     * Fetch one keyset page on (date, id). One extra row is read to know whether another page exists.
+     */
+    private CommissionPageDTO fetchPage(String cursor, Integer limit, PageQuery query,
+                                        boolean includeTotal, LongSupplier totalCounter) {
+        int pageSize = resolvePageSize(limit);
+
+        LocalDate afterDate = FIRST_PAGE_DATE;
+        long afterId = FIRST_PAGE_ID;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            afterDate = LocalDate.parse(parts[0]);
+            afterId = Long.parseLong(parts[1]);
+        }
+
+        List<Commission> rows = query.fetch(afterDate, afterId, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        CommissionPageDTO page = new CommissionPageDTO();
+        page.setCommissions(rows.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList()));
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            Commission last = rows.get(rows.size() - 1);
+            page.setNextCursor(encodeCursor(last.getDate(), last.getId()));
+        }
+        if (includeTotal) {
+            page.setTotal(totalCounter.getAsLong());
+        }
+        return page;
+    }
+
+    /**
+     * Fetch one page of a ranked/ordered search by offset; the cursor carries the next offset
+     */
+    private CommissionPageDTO fetchOffsetPage(String cursor, Integer limit, OffsetQuery query,
+                                              boolean includeTotal, LongSupplier totalCounter) {
+        int pageSize = resolvePageSize(limit);
+        int offset = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            offset = decodeOffsetCursor(cursor);
+        }
+
+        List<Commission> rows = query.fetch(pageSize + 1, offset);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        CommissionPageDTO page = new CommissionPageDTO();
+        page.setCommissions(rows.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList()));
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            page.setNextCursor(encodeOffsetCursor(offset + pageSize));
+        }
+        if (includeTotal) {
+            page.setTotal(totalCounter.getAsLong());
+        }
+        return page;
+    }
+
+    private int resolvePageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private String encodeOffsetCursor(int offset) {
+        String raw = "offset:" + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int decodeOffsetCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith("offset:")) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            int offset = Integer.parseInt(raw.substring("offset:".length()));
+            // Past MAX_OFFSET the next cursor would no longer fit in an int
+            if (offset < 0 || offset > MAX_OFFSET) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return offset;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private String encodeCursor(LocalDate date, Long id) {
+        String raw = date + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 2) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            LocalDate.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        List<Commission> fetch(LocalDate afterDate, Long afterId, Pageable pageable);
+    }
+
+    @FunctionalInterface
+    private interface OffsetQuery {
+        List<Commission> fetch(int limit, int offset);
+    }
+
+    /**
+     * Commission search modes
+     */
+    public enum SearchMode {
+        CONTAINS,
+        RANKED,
+        PREFIX
+    }
+
     /**
      * Convert entity to DTO
      */
@@ -7,13 +7,19 @@ import com.example.admin_service.entity.CommissionSettings;
 import com.example.admin_service.repository.CommissionSettingsRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +29,11 @@ public class CommissionSettingsService {
 
     private final CommissionSettingsRepository commissionSettingsRepository;
 
+    // Loaded at startup and replaced whole whenever the settings change
+    private volatile RateTable rateTable;
+    // Not a monitor: reloads wait on the database, which must not pin a virtual thread's carrier
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
     /**
      * Initialize default commission settings if not exists
      */
@@ -45,6 +56,7 @@ public class CommissionSettingsService {
             ));
 
             log.info("Default commission settings initialized successfully");
+            reloadRatesAfterCommit();
         }
     }
 
@@ -52,15 +64,7 @@ public class CommissionSettingsService {
      * Get all commission settings
      */
     public Map<String, BigDecimal> getAllSettings() {
-        List<CommissionSettings> settings = commissionSettingsRepository.findAll();
-        Map<String, BigDecimal> settingsMap = new HashMap<>();
-
-        for (CommissionSettings setting : settings) {
-            String key = setting.getProviderType().name();
-            settingsMap.put(key, setting.getCommissionRate());
-        }
-
-        return settingsMap;
+        return new HashMap<>(rates().allRates());
     }
 
     /**
@@ -86,9 +90,7 @@ public class CommissionSettingsService {
      * Get commission rate by provider type
      */
     public BigDecimal getCommissionRate(Commission.ProviderType providerType) {
-        return commissionSettingsRepository.findByProviderTypeAndIsActiveTrue(providerType)
-                .map(CommissionSettings::getCommissionRate)
-                .orElse(BigDecimal.ZERO);
+        return rates().activeRates().getOrDefault(providerType, BigDecimal.ZERO);
     }
 
     /**
@@ -103,6 +105,7 @@ public class CommissionSettingsService {
 
         settings.setCommissionRate(dto.getCommissionRate());
         CommissionSettings updated = commissionSettingsRepository.save(settings);
+        reloadRatesAfterCommit();
 
         log.info("Updated commission settings for provider type: {}, new rate: {}%",
                 providerType, dto.getCommissionRate());
@@ -111,14 +114,84 @@ public class CommissionSettingsService {
     }
 
     /**
-     * Bulk update commission settings
+     * Bulk update commission settings. The settings are read once and the changes flushed together at
+     * commit, so the UPDATEs go out as a single JDBC batch.
      */
     @Transactional
     public Map<String, BigDecimal> bulkUpdateSettings(List<UpdateCommissionSettingsDTO> dtos) {
+        List<CommissionSettings> all = commissionSettingsRepository.findAll();
+        Map<Commission.ProviderType, CommissionSettings> byProviderType = new EnumMap<>(Commission.ProviderType.class);
+        for (CommissionSettings settings : all) {
+            byProviderType.put(settings.getProviderType(), settings);
+        }
+
         for (UpdateCommissionSettingsDTO dto : dtos) {
-            updateSettings(dto.getProviderType(), dto);
+            CommissionSettings settings = byProviderType.get(dto.getProviderType());
+            if (settings == null) {
+                throw new RuntimeException("Commission settings not found for provider type: " + dto.getProviderType());
+            }
+            settings.setCommissionRate(dto.getCommissionRate());
+        }
+        reloadRatesAfterCommit();
+
+        log.info("Updated commission settings for {} provider types", dtos.size());
+
+        // The in-memory table is only swapped after commit, so answer from the updated entities
+        return new HashMap<>(RateTable.of(all).allRates());
+    }
+
+    /**
+     * Reload the in-memory rate table from the database. Also polled so that every instance sees
+     * rates changed through another instance within the refresh interval.
+     */
+    @Scheduled(fixedDelayString = "${commission.rates.refresh-interval-ms:5000}",
+               initialDelayString = "${commission.rates.refresh-interval-ms:5000}")
+    public void reloadRates() {
+        reloadLock.lock();
+        try {
+            RateTable loaded = RateTable.of(commissionSettingsRepository.findAll());
+            if (!loaded.equals(rateTable)) {
+                if (rateTable != null) {
+                    log.info("Commission rates changed: {}", loaded.allRates());
+                }
+                rateTable = loaded;
+            }
+        } finally {
+            reloadLock.unlock();
         }
-        return getAllSettings();
+    }
+
+    private RateTable rates() {
+        RateTable table = rateTable;
+        if (table == null) {
+            reloadLock.lock();
+            try {
+                if (rateTable == null) {
+                    reloadRates();
+                }
+                table = rateTable;
+            } finally {
+                reloadLock.unlock();
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Swap in the new rates once the current transaction commits, so that readers never see
+     * uncommitted settings
+     */
+    private void reloadRatesAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadRates();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reloadRates();
+            }
+        });
     }
 
     /**
@@ -132,4 +205,24 @@ public class CommissionSettingsService {
         dto.setIsActive(entity.getIsActive());
         return dto;
     }
+
+    /**
+     * Immutable snapshot of the commission settings: the rates of active provider types, used for
+     * calculations, and the rates of all provider types as listed by getAllSettings
+     */
+    private record RateTable(Map<Commission.ProviderType, BigDecimal> activeRates,
+                             Map<String, BigDecimal> allRates) {
+
+        static RateTable of(List<CommissionSettings> settings) {
+            Map<Commission.ProviderType, BigDecimal> active = new EnumMap<>(Commission.ProviderType.class);
+            Map<String, BigDecimal> all = new HashMap<>();
+            for (CommissionSettings setting : settings) {
+                if (Boolean.TRUE.equals(setting.getIsActive())) {
+                    active.put(setting.getProviderType(), setting.getCommissionRate());
+                }
+                all.put(setting.getProviderType().name(), setting.getCommissionRate());
+            }
+            return new RateTable(Collections.unmodifiableMap(active), Collections.unmodifiableMap(all));
+        }
+    }
 }
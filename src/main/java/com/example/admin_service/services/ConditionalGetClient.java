@@ -0,0 +1,167 @@
+package com.example.admin_service.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * GET client for the service-provider API that remembers each URL's ETag / Last-Modified validators together
+ * with the parsed response body. Later requests are sent as conditional GETs, and a 304 Not Modified answer
+ * is served from the previously parsed object instead of re-downloading and re-parsing the payload.
+ * When the downstream is unavailable (open circuit, full bulkhead, I/O error or 5xx) the last known good
+ * body can be served instead, if serviceprovider.serve-stale-on-failure is enabled.
+ * Bodies are cached per URL and caller (the SHA-256 of the Authorization header), so a body fetched with one
+ * admin's token is never served to another, not even as a stale fallback when the downstream cannot check
+ * the token. Cached bodies must be treated as read-only.
+ */
+@Service
+@Slf4j
+public class ConditionalGetClient {
+
+    private final RestTemplate restTemplate;
+    private final Cache<BodyKey, ValidatedBody> bodies;
+    private final Counter notModified;
+    private final Counter fullResponses;
+    private final Counter staleResponses;
+    private final boolean serveStaleOnFailure;
+
+    public ConditionalGetClient(RestTemplate restTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${serviceprovider.conditional-get.max-entries:500}") long maxEntries,
+                                @Value("${serviceprovider.conditional-get.ttl-minutes:30}") long ttlMinutes,
+                                @Value("${serviceprovider.serve-stale-on-failure:true}") boolean serveStaleOnFailure) {
+        this.restTemplate = restTemplate;
+        this.serveStaleOnFailure = serveStaleOnFailure;
+        this.bodies = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .build();
+        this.notModified = Counter.builder("serviceprovider.conditional.get")
+                .tag("result", "not_modified")
+                .description("Conditional GETs answered with 304 and served from the parsed body")
+                .register(meterRegistry);
+        this.fullResponses = Counter.builder("serviceprovider.conditional.get")
+                .tag("result", "full")
+                .description("GETs that downloaded and parsed a full body")
+                .register(meterRegistry);
+        this.staleResponses = Counter.builder("serviceprovider.conditional.get")
+                .tag("result", "stale")
+                .description("GETs served from the last known good body because the downstream was unavailable")
+                .register(meterRegistry);
+    }
+
+    public <T> ResponseEntity<T> get(String url, HttpHeaders headers, Class<T> responseType) {
+        return get(url, headers, ParameterizedTypeReference.forType(responseType));
+    }
+
+    /**
+     * GET url with the given headers, adding If-None-Match / If-Modified-Since when validators are known.
+     * A 304 is turned into a 200 carrying the cached body, so callers see the same response either way.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> get(String url, HttpHeaders headers, ParameterizedTypeReference<T> responseType) {
+        BodyKey key = new BodyKey(url, callerOf(headers));
+        ValidatedBody cached = bodies.getIfPresent(key);
+
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.addAll(headers);
+        if (cached != null) {
+            if (cached.etag != null) {
+                requestHeaders.setIfNoneMatch(cached.etag);
+            }
+            if (cached.lastModified > 0) {
+                requestHeaders.setIfModifiedSince(cached.lastModified);
+            }
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    new HttpEntity<Void>(requestHeaders),
+                    responseType
+            );
+        } catch (CallNotPermittedException | BulkheadFullException
+                 | ResourceAccessException | HttpServerErrorException e) {
+            if (!serveStaleOnFailure || cached == null) {
+                throw e;
+            }
+            log.warn("Service provider unavailable ({}), serving last known good response for {}",
+                    e.getClass().getSimpleName(), url);
+            staleResponses.increment();
+            return ResponseEntity.ok()
+                    .header("Warning", "110 - \"Response is Stale\"")
+                    .body((T) cached.body);
+        }
+
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+            log.debug("Not modified, reusing cached body for {}", url);
+            notModified.increment();
+            return ResponseEntity.ok().headers(response.getHeaders()).body((T) cached.body);
+        }
+
+        fullResponses.increment();
+        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+            // Kept even without validators so it can serve as the last known good response
+            bodies.put(key, new ValidatedBody(
+                    response.getHeaders().getETag(),
+                    response.getHeaders().getLastModified(),
+                    response.getBody()));
+        }
+        return response;
+    }
+
+    /**
+     * Forget the bodies and validators of every URL under urlPrefix, for every caller, e.g. after a write
+     * through this service changed the resources behind them
+     */
+    public void invalidate(String urlPrefix) {
+        bodies.asMap().keySet().removeIf(key -> key.url().startsWith(urlPrefix));
+    }
+
+    private static String callerOf(HttpHeaders headers) {
+        String authorization = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null) {
+            return "";
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(authorization.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record BodyKey(String url, String caller) {
+    }
+
+    private static class ValidatedBody {
+        private final String etag;
+        private final long lastModified;
+        private final Object body;
+
+        private ValidatedBody(String etag, long lastModified, Object body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+}
@@ -2,6 +2,7 @@
 package com.example.admin_service.services;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -21,6 +22,10 @@ public class JWTService {
     private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
     private static final long JWT_EXPIRATION = 1000 * 60 * 60 * 24; // 24 hours in milliseconds
 
+    // Decoded once; both the key and the parser are immutable and thread-safe
+    private final Key signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+    private final JwtParser jwtParser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+
     public String extractUserName(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -46,33 +51,33 @@ public class JWTService {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUserName(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    public Long getExpirationTime() {
-        return JWT_EXPIRATION;
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Validate already-parsed claims against the user, without parsing the token again
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return username != null
+                && username.equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public Long getExpirationTime() {
+        return JWT_EXPIRATION;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+    /**
+     * Parse and verify the token's signature and expiry, returning its claims
+     */
+    public Claims extractAllClaims(String token) {
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
     }
 }
\ No newline at end of file
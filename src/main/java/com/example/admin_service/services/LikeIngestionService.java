@@ -0,0 +1,210 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.dto.LikeBatchResultDTO;
+import com.example.admin_service.dto.LikeEventDTO;
+import com.example.admin_service.entity.PointsLedgerEntry;
+import com.example.admin_service.exception.BadRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Ingests like events from the feed service in batches. Events are coalesced per user, and the resulting
+ * likes credits are appended to the points ledger with JDBC batch inserts, one transaction per chunk of users.
+ * Each event is still priced on its own against a single read of the tier settings and the points summed,
+ * so a user earns exactly what the same events would earn through awardPointsForLikes one at a time;
+ * pricing the summed likes instead would move users into higher tiers and change payouts. As there,
+ * an event worth no points is not recorded, so its likes do not count towards the user's total likes.
+ */
+@Service
+@Slf4j
+public class LikeIngestionService {
+
+    // Credits only users that are TripFluencers; for anyone else the statement inserts no row
+    private static final String INSERT_LIKES_CREDIT =
+            "INSERT INTO points_ledger (user_id, delta, earned_delta, used_delta, likes_delta, reason, source, event_time) " +
+            "SELECT ?, ?, ?, 0, ?, ?, ?, now() " +
+            "WHERE EXISTS (SELECT 1 FROM tripfluencer_points t WHERE t.user_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PointSettingsService pointSettingsService;
+    private final PointsLeaderboard leaderboard;
+    private final Timer batchTimer;
+    private final Counter acceptedEvents;
+    private final Counter rejectedEvents;
+
+    @Value("${points.likes.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${points.likes.batch.max-events:50000}")
+    private int maxEvents;
+
+    public LikeIngestionService(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                PointSettingsService pointSettingsService,
+                                PointsLeaderboard leaderboard,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.pointSettingsService = pointSettingsService;
+        this.leaderboard = leaderboard;
+
+        this.batchTimer = Timer.builder("points.likes.batch.latency")
+                .description("Time taken to ingest one batch of like events")
+                .register(meterRegistry);
+        this.acceptedEvents = Counter.builder("points.likes.events")
+                .tag("outcome", "accepted")
+                .description("Like events ingested")
+                .register(meterRegistry);
+        this.rejectedEvents = Counter.builder("points.likes.events")
+                .tag("outcome", "rejected")
+                .description("Like events ingested")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Award points for a batch of like events. Events without a user, with no new likes or worth no points
+     * are rejected, as are events for users that are not TripFluencers or whose chunk failed to commit.
+     */
+    public LikeBatchResultDTO ingest(List<LikeEventDTO> events) {
+        if (events == null || events.isEmpty()) {
+            throw new BadRequestException("No like events provided");
+        }
+        if (events.size() > maxEvents) {
+            throw new BadRequestException("Too many like events in one batch: " + events.size() +
+                    " (max " + maxEvents + ")");
+        }
+
+        long start = System.nanoTime();
+        LikeBatchResultDTO result = new LikeBatchResultDTO();
+        result.setReceived(events.size());
+
+        Map<Long, UserLikes> byUser = coalesce(events);
+        IntUnaryOperator pointsForLikes = pointSettingsService.pointsCalculator();
+        List<UserLikes> pending = new ArrayList<>(byUser.size());
+        int accepted = 0;
+        for (UserLikes userLikes : byUser.values()) {
+            userLikes.price(pointsForLikes);
+            // Users whose events are all worth no points get no ledger row, as in awardPointsForLikes
+            if (userLikes.points > 0) {
+                pending.add(userLikes);
+                accepted += userLikes.creditedEvents;
+            }
+        }
+        result.setRejected(events.size() - accepted);
+
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            applyChunk(pending.subList(from, Math.min(from + chunkSize, pending.size())), result);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        batchTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        acceptedEvents.increment(result.getAccepted());
+        rejectedEvents.increment(result.getRejected());
+        result.setLatencyMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+
+        log.info("Ingested {} like events for {} users: {} accepted, {} rejected, {} points awarded in {} ms",
+                result.getReceived(), byUser.size(), result.getAccepted(), result.getRejected(),
+                result.getPointsAwarded(), result.getLatencyMs());
+        return result;
+    }
+
+    /**
+     * Insert the likes credits of one chunk of users in a single transaction
+     */
+    private void applyChunk(List<UserLikes> chunk, LikeBatchResultDTO result) {
+        int[][] updateCounts;
+        try {
+            updateCounts = transactionTemplate.execute(status ->
+                    jdbcTemplate.batchUpdate(INSERT_LIKES_CREDIT, chunk, chunk.size(), (ps, userLikes) -> {
+                        ps.setLong(1, userLikes.userId);
+                        ps.setInt(2, userLikes.points);
+                        ps.setInt(3, userLikes.points);
+                        ps.setInt(4, userLikes.likes());
+                        ps.setString(5, userLikes.likes() + " likes");
+                        ps.setString(6, PointsLedgerEntry.SOURCE_LIKES);
+                        ps.setLong(7, userLikes.userId);
+                    }));
+        } catch (RuntimeException e) {
+            log.error("Failed to apply like credits for {} users: {}", chunk.size(), e.getMessage(), e);
+            for (UserLikes userLikes : chunk) {
+                result.setRejected(result.getRejected() + userLikes.creditedEvents);
+            }
+            return;
+        }
+
+        int[] counts = updateCounts[0];
+        List<Long> credited = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            UserLikes userLikes = chunk.get(i);
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                credited.add(userLikes.userId);
+                result.setAccepted(result.getAccepted() + userLikes.creditedEvents);
+                result.setUsersCredited(result.getUsersCredited() + 1);
+                result.setPointsAwarded(result.getPointsAwarded() + userLikes.points);
+            } else {
+                result.setRejected(result.getRejected() + userLikes.creditedEvents);
+            }
+        }
+        leaderboard.markChanged(credited);
+    }
+
+    /**
+     * Sum the new likes of each user, dropping invalid events
+     */
+    private static Map<Long, UserLikes> coalesce(List<LikeEventDTO> events) {
+        Map<Long, UserLikes> byUser = new LinkedHashMap<>();
+        for (LikeEventDTO event : events) {
+            if (event == null || event.getUserId() == null
+                    || event.getNewLikes() == null || event.getNewLikes() <= 0) {
+                continue;
+            }
+            UserLikes userLikes = byUser.computeIfAbsent(event.getUserId(), UserLikes::new);
+            userLikes.eventLikes.add(event.getNewLikes());
+        }
+        return byUser;
+    }
+
+    private static final class UserLikes {
+        private final Long userId;
+        private final List<Integer> eventLikes = new ArrayList<>();
+        private int creditedEvents;
+        private long creditedLikes;
+        private int points;
+
+        private UserLikes(Long userId) {
+            this.userId = userId;
+        }
+
+        private int likes() {
+            return (int) Math.min(creditedLikes, Integer.MAX_VALUE);
+        }
+
+        private void price(IntUnaryOperator pointsForLikes) {
+            long total = 0;
+            for (int likes : eventLikes) {
+                int eventPoints = pointsForLikes.applyAsInt(likes);
+                if (eventPoints > 0) {
+                    total += eventPoints;
+                    creditedLikes += likes;
+                    creditedEvents++;
+                }
+            }
+            points = (int) Math.min(total, Integer.MAX_VALUE);
+        }
+    }
+}
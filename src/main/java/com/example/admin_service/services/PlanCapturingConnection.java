@@ -0,0 +1,117 @@
+package com.example.admin_service.services;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection wrapper used by the query plan report. Every statement prepared through it is prepared as
+ * EXPLAIN (FORMAT JSON) of the same SQL, so the caller (Hibernate, Spring Data, plain JDBC) generates and binds
+ * the statement exactly as it would for real; executing it records the SQL and its plan instead of running it.
+ * Queries then see an empty result and updates report no rows changed.
+ */
+final class PlanCapturingConnection {
+
+    record CapturedPlan(String sql, String planJson) {
+    }
+
+    private final Connection connection;
+    private final Connection capturing;
+    private final List<CapturedPlan> captured = new ArrayList<>();
+
+    PlanCapturingConnection(Connection connection) {
+        this.connection = connection;
+        this.capturing = wrap();
+    }
+
+    /**
+     * The wrapped connection to hand to the code whose statements should be explained
+     */
+    Connection connection() {
+        return capturing;
+    }
+
+    private Connection wrap() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement") && args != null && args[0] instanceof String sql) {
+                        Object[] explainArgs = args.clone();
+                        explainArgs[0] = "EXPLAIN (FORMAT JSON) " + sql;
+                        return explaining((PreparedStatement) invoke(connection, method, explainArgs), sql);
+                    }
+                    return invoke(connection, method, args);
+                });
+    }
+
+    /**
+     * Plans captured since the last call, in execution order
+     */
+    List<CapturedPlan> drain() {
+        List<CapturedPlan> plans = List.copyOf(captured);
+        captured.clear();
+        return plans;
+    }
+
+    private PreparedStatement explaining(PreparedStatement explain, String sql) {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (args != null) {
+                        return invoke(explain, method, args);
+                    }
+                    return switch (method.getName()) {
+                        case "executeQuery" -> {
+                            ResultSet plan = explain.executeQuery();
+                            record(plan, sql);
+                            yield emptyResult(plan);
+                        }
+                        case "execute" -> {
+                            try (ResultSet plan = explain.executeQuery()) {
+                                record(plan, sql);
+                            }
+                            yield false;
+                        }
+                        case "executeUpdate" -> {
+                            try (ResultSet plan = explain.executeQuery()) {
+                                record(plan, sql);
+                            }
+                            yield 0;
+                        }
+                        case "executeLargeUpdate" -> {
+                            try (ResultSet plan = explain.executeQuery()) {
+                                record(plan, sql);
+                            }
+                            yield 0L;
+                        }
+                        case "getUpdateCount" -> -1;
+                        default -> invoke(explain, method, null);
+                    };
+                });
+    }
+
+    // The plan's single row has been read, so the caller finds no rows; column lookups by name (native entity
+    // queries resolve their columns up front) succeed instead of failing on the plan's one column
+    private ResultSet emptyResult(ResultSet plan) {
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ResultSet.class},
+                (proxy, method, args) -> method.getName().equals("findColumn") ? 1 : invoke(plan, method, args));
+    }
+
+    private void record(ResultSet plan, String sql) throws SQLException {
+        plan.next();
+        captured.add(new CapturedPlan(sql, plan.getString(1)));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -2,19 +2,29 @@ package com.example.admin_service.services;
 
 import com.example.admin_service.dto.PointRedemptionDTO;
 import com.example.admin_service.dto.RedeemPointsDTO;
+import com.example.admin_service.dto.UserProfileDTO;
 import com.example.admin_service.entity.PointRedemption;
-import com.example.admin_service.entity.TripFluencerPoints;
+import com.example.admin_service.entity.PointsLedgerEntry;
 import com.example.admin_service.repository.PointRedemptionRepository;
 import com.example.admin_service.repository.TripFluencerPointsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,29 +34,38 @@ public class PointRedemptionService {
 
     private final PointRedemptionRepository redemptionRepository;
     private final TripFluencerPointsRepository pointsRepository;
-    private final RestTemplate restTemplate;
+    private final UserServiceClient userServiceClient;
+    private final PointsLedgerService ledgerService;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
 
     // Monthly premium price - should be configured in application.properties
     private static final Double MONTHLY_PREMIUM_PRICE = 2500.0;
 
-    // User service URL
-    private static final String USER_SERVICE_URL = "http://localhost:8081/api/users";
+    // Advisory lock held by the instance currently expiring redemptions
+    private static final long EXPIRY_LOCK_KEY = 4_020_001L;
+
+    // Served by the partial index idx_point_redemptions_active_expires_at; SKIP LOCKED leaves rows
+    // being cancelled concurrently for the next run (also explained by QueryPlanReportService)
+    static final String EXPIRE_CHUNK =
+            "UPDATE point_redemptions SET status = 'EXPIRED' " +
+            "WHERE id IN (SELECT id FROM point_redemptions " +
+            "             WHERE status = 'ACTIVE' AND expires_at < ? " +
+            "             ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    @Value("${points.redemptions.expiry.chunk-size:1000}")
+    private int expiryChunkSize;
 
     /**
      * Redeem points for monthly premium subscription
      */
     @Transactional
     public PointRedemptionDTO redeemPoints(RedeemPointsDTO dto) {
-        // Validate user exists and has enough points
-        TripFluencerPoints userPoints = pointsRepository.findByUserId(dto.getUserId())
-                .orElseThrow(() -> new RuntimeException("TripFluencer not found for user: " + dto.getUserId()));
-
         // Validate points to redeem (max 100 points = 100% discount)
         Integer pointsToRedeem = Math.min(dto.getPointsToRedeem(), 100);
 
-        if (userPoints.getCurrentPoints() < pointsToRedeem) {
-            throw new RuntimeException("Insufficient points. User has: " + userPoints.getCurrentPoints() +
-                    ", trying to redeem: " + pointsToRedeem);
+        if (pointsToRedeem <= 0 && !pointsRepository.existsByUserId(dto.getUserId())) {
+            throw new RuntimeException("TripFluencer not found for user: " + dto.getUserId());
         }
 
         // Create redemption record
@@ -58,13 +77,15 @@ public class PointRedemptionService {
 
         redemption.setSubscriptionType(dto.getSubscriptionType());
 
-        // Deduct points from user
-        userPoints.deductPoints(pointsToRedeem);
-        pointsRepository.save(userPoints);
-
         // Save redemption
         PointRedemption saved = redemptionRepository.save(redemption);
 
+        // Deduct points from user; fails (and rolls back the redemption) if the balance does not cover them
+        if (pointsToRedeem > 0) {
+            ledgerService.debit(dto.getUserId(), pointsToRedeem, "Monthly premium discount",
+                    PointsLedgerEntry.SOURCE_REDEMPTION, saved.getId(), "redeem");
+        }
+
         log.info("User {} redeemed {} points for {}% discount on monthly premium",
                 dto.getUserId(), pointsToRedeem, pointsToRedeem);
 
@@ -75,30 +96,39 @@ public class PointRedemptionService {
      * Get all redemptions
      */
     public List<PointRedemptionDTO> getAllRedemptions(String token) {
-        return redemptionRepository.findAllByOrderByRedeemedAtDesc()
+        List<PointRedemptionDTO> redemptions = redemptionRepository.findAllByOrderByRedeemedAtDesc()
                 .stream()
-                .map(redemption -> convertToDTO(redemption, token))
+                .map(this::convertToDTO)
                 .collect(Collectors.toList());
+
+        enrichWithUserDetails(redemptions, token);
+        return redemptions;
     }
 
     /**
      * Get redemptions by user
      */
     public List<PointRedemptionDTO> getRedemptionsByUser(Long userId, String token) {
-        return redemptionRepository.findByUserIdOrderByRedeemedAtDesc(userId)
+        List<PointRedemptionDTO> redemptions = redemptionRepository.findByUserIdOrderByRedeemedAtDesc(userId)
                 .stream()
-                .map(redemption -> convertToDTO(redemption, token))
+                .map(this::convertToDTO)
                 .collect(Collectors.toList());
+
+        enrichWithUserDetails(redemptions, token);
+        return redemptions;
     }
 
     /**
      * Get redemptions by status
      */
     public List<PointRedemptionDTO> getRedemptionsByStatus(String status, String token) {
-        return redemptionRepository.findByStatus(status.toUpperCase())
+        List<PointRedemptionDTO> redemptions = redemptionRepository.findByStatus(status.toUpperCase())
                 .stream()
-                .map(redemption -> convertToDTO(redemption, token))
+                .map(this::convertToDTO)
                 .collect(Collectors.toList());
+
+        enrichWithUserDetails(redemptions, token);
+        return redemptions;
     }
 
     /**
@@ -109,47 +139,76 @@ public class PointRedemptionService {
         PointRedemption redemption = redemptionRepository.findById(redemptionId)
                 .orElseThrow(() -> new RuntimeException("Redemption not found: " + redemptionId));
 
-        if (!"ACTIVE".equals(redemption.getStatus())) {
+        // Claim the cancellation atomically so concurrent cancels cannot refund twice
+        if (!"ACTIVE".equals(redemption.getStatus())
+                || redemptionRepository.updateStatusIfCurrent(redemptionId, "ACTIVE", "CANCELLED") == 0) {
             throw new RuntimeException("Can only cancel active redemptions");
         }
 
         // Refund points to user
-        TripFluencerPoints userPoints = pointsRepository.findByUserId(redemption.getUserId())
-                .orElseThrow(() -> new RuntimeException("TripFluencer not found"));
-
-        userPoints.addPoints(redemption.getPointsUsed());
-        userPoints.setPointsUsed(userPoints.getPointsUsed() - redemption.getPointsUsed());
-        pointsRepository.save(userPoints);
+        ledgerService.refund(redemption.getUserId(), redemption.getPointsUsed(), "Redemption cancelled",
+                PointsLedgerEntry.SOURCE_REDEMPTION_CANCEL, redemptionId);
 
-        // Update redemption status
+        // The entity was detached by the conditional status update; reflect the new status for the response
         redemption.setStatus("CANCELLED");
-        PointRedemption updated = redemptionRepository.save(redemption);
 
         log.info("Redemption {} cancelled, refunded {} points to user {}",
                 redemptionId, redemption.getPointsUsed(), redemption.getUserId());
 
-        return convertToDTO(updated, token);
+        return convertToDTO(redemption, token);
     }
 
     /**
-     * Expire old redemptions (should be called by a scheduled job)
+     * Expire active redemptions past their expiry date, in chunks so that no single statement holds row
+     * locks for long. Runs on a schedule; a Postgres advisory lock keeps replicas from running it at the
+     * same time, and a run that finds the lock taken does nothing. Returns the number of redemptions expired.
      */
-    @Transactional
-    public void expireOldRedemptions() {
-        List<PointRedemption> activeRedemptions = redemptionRepository.findByStatus("ACTIVE");
-
-        int expiredCount = 0;
-        for (PointRedemption redemption : activeRedemptions) {
-            if (redemption.getExpiresAt() != null &&
-                    redemption.getExpiresAt().isBefore(LocalDateTime.now())) {
-                redemption.setStatus("EXPIRED");
-                redemptionRepository.save(redemption);
-                expiredCount++;
+    @Scheduled(fixedDelayString = "${points.redemptions.expiry.interval-ms:300000}",
+               initialDelayString = "${points.redemptions.expiry.interval-ms:300000}")
+    public int expireOldRedemptions() {
+        // Expiry dates are written in the application's local time, so compare against that rather than now()
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now());
+
+        Integer expired = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(?)")) {
+                log.debug("Redemption expiry is already running on another instance");
+                return null;
             }
+            try {
+                int total = 0;
+                int updated;
+                do {
+                    // Each chunk commits on its own (the connection is in auto-commit mode)
+                    try (PreparedStatement ps = connection.prepareStatement(EXPIRE_CHUNK)) {
+                        ps.setTimestamp(1, cutoff);
+                        ps.setInt(2, expiryChunkSize);
+                        updated = ps.executeUpdate();
+                    }
+                    total += updated;
+                } while (updated == expiryChunkSize);
+                return total;
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(?)");
+            }
+        });
+
+        if (expired == null) {
+            return 0;
+        }
+        meterRegistry.summary("points.redemptions.expired.per.run").record(expired);
+        if (expired > 0) {
+            meterRegistry.counter("points.redemptions.expired").increment(expired);
+            log.info("Expired {} redemptions", expired);
         }
+        return expired;
+    }
 
-        if (expiredCount > 0) {
-            log.info("Expired {} redemptions", expiredCount);
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, EXPIRY_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
         }
     }
 
@@ -168,9 +227,41 @@ public class PointRedemptionService {
     }
 
     /**
-     * Convert entity to DTO
+     * Resolve user details for a whole listing in one batch and merge them into the DTOs
+     */
+    private void enrichWithUserDetails(List<PointRedemptionDTO> dtos, String token) {
+        if (token == null || dtos.isEmpty()) {
+            return;
+        }
+
+        Map<Long, UserProfileDTO> profiles = userServiceClient.fetchUserProfiles(
+                dtos.stream().map(PointRedemptionDTO::getUserId).collect(Collectors.toList()),
+                token
+        );
+
+        for (PointRedemptionDTO dto : dtos) {
+            applyUserProfile(dto, profiles.get(dto.getUserId()));
+        }
+    }
+
+    /**
+     * Convert entity to DTO and fetch user details
      */
     private PointRedemptionDTO convertToDTO(PointRedemption entity, String token) {
+        PointRedemptionDTO dto = convertToDTO(entity);
+
+        // Fetch user details if token is provided
+        if (token != null) {
+            applyUserProfile(dto, userServiceClient.fetchUserProfile(entity.getUserId(), token));
+        }
+
+        return dto;
+    }
+
+    /**
+     * Convert entity to DTO without user details
+     */
+    private PointRedemptionDTO convertToDTO(PointRedemption entity) {
         PointRedemptionDTO dto = new PointRedemptionDTO();
         dto.setId(entity.getId());
         dto.setUserId(entity.getUserId());
@@ -183,68 +274,13 @@ public class PointRedemptionService {
         dto.setStatus(entity.getStatus());
         dto.setRedeemedAt(entity.getRedeemedAt());
         dto.setExpiresAt(entity.getExpiresAt());
-
-        // Fetch user details if token is provided
-        if (token != null) {
-            try {
-                fetchUserDetails(dto, entity.getUserId(), token);
-            } catch (Exception e) {
-                log.warn("Failed to fetch user details for redemption {}: {}", entity.getId(), e.getMessage());
-                dto.setUserName("User " + entity.getUserId());
-                dto.setUserEmail("user" + entity.getUserId() + "@example.com");
-            }
-        }
-
         return dto;
     }
 
-    /**
-     * Fetch user details from user service
-     */
-    private void fetchUserDetails(PointRedemptionDTO dto, Long userId, String token) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + token);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<UserDetailsResponse> response = restTemplate.exchange(
-                    USER_SERVICE_URL + "/" + userId,
-                    HttpMethod.GET,
-                    entity,
-                    UserDetailsResponse.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                UserDetailsResponse user = response.getBody();
-                dto.setUserName(user.getName());
-                dto.setUserEmail(user.getEmail());
-            }
-        } catch (Exception e) {
-            log.warn("Could not fetch user details: {}", e.getMessage());
-        }
-    }
-
-    /**
-     * Inner class for user details response
-     */
-    private static class UserDetailsResponse {
-        private String name;
-        private String email;
-
-        public String getName() {
-            return name;
-        }
-
-        public void setName(String name) {
-            this.name = name;
-        }
-
-        public String getEmail() {
-            return email;
-        }
-
-        public void setEmail(String email) {
-            this.email = email;
+    private void applyUserProfile(PointRedemptionDTO dto, UserProfileDTO profile) {
+        if (profile != null) {
+            dto.setUserName(profile.getName());
+            dto.setUserEmail(profile.getEmail());
         }
     }
 
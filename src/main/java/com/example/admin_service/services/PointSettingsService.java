@@ -6,10 +6,17 @@ import com.example.admin_service.entity.PointSettings;
 import com.example.admin_service.repository.PointSettingsRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,6 +26,11 @@ public class PointSettingsService {
 
     private final PointSettingsRepository pointSettingsRepository;
 
+    // Compiled from the settings on first use and replaced whenever they change
+    private volatile PointTierTable tierTable;
+    // Not a monitor: reloads wait on the database, which must not pin a virtual thread's carrier
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
     /**
      * Initialize default point settings if not exists
      */
@@ -34,6 +46,7 @@ public class PointSettingsService {
             pointSettingsRepository.save(new PointSettings("tier5", 500001, 1000000, 50));
 
             log.info("Default point settings initialized successfully");
+            reloadTiersAfterCommit();
         }
     }
 
@@ -66,6 +79,7 @@ public class PointSettingsService {
 
         settings.setPointsPerMilestone(dto.getPointsPerMilestone());
         PointSettings updated = pointSettingsRepository.save(settings);
+        reloadTiersAfterCommit();
 
         log.info("Updated point settings for tier: {}, new points: {}",
                 tierName, dto.getPointsPerMilestone());
@@ -74,35 +88,92 @@ public class PointSettingsService {
     }
 
     /**
-     * Bulk update point settings
+     * Bulk update point settings. The tiers are read once and the changes flushed together at commit,
+     * so the UPDATEs go out as a single JDBC batch.
      */
     @Transactional
     public List<PointSettingsDTO> bulkUpdateSettings(List<UpdatePointSettingsDTO> dtos) {
+        List<PointSettings> all = pointSettingsRepository.findAllByOrderByMinLikesAsc();
+        Map<String, PointSettings> byTierName = all.stream()
+                .collect(Collectors.toMap(PointSettings::getTierName, Function.identity()));
+
         for (UpdatePointSettingsDTO dto : dtos) {
-            updateSettings(dto.getTierName(), dto);
+            PointSettings settings = byTierName.get(dto.getTierName());
+            if (settings == null) {
+                throw new RuntimeException("Point settings not found for tier: " + dto.getTierName());
+            }
+            settings.setPointsPerMilestone(dto.getPointsPerMilestone());
         }
-        return getAllSettings();
+        reloadTiersAfterCommit();
+
+        log.info("Updated point settings for {} tiers", dtos.size());
+
+        return all.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
     }
 
     /**
      * Calculate points based on likes
      */
     public Integer calculatePointsFromLikes(Integer likes) {
-        List<PointSettings> settings = pointSettingsRepository.findAllByOrderByMinLikesAsc();
+        return tiers().pointsFor(likes);
+    }
+
+    /**
+     * Likes-to-points function over the current tiers; use it to price many like counts
+     */
+    public IntUnaryOperator pointsCalculator() {
+        return tiers();
+    }
+
+    /**
+     * Recompile the tier table from the database. Also runs periodically so that instances pick up
+     * settings changed through another instance.
+     */
+    @Scheduled(fixedDelayString = "${points.tiers.refresh-interval-ms:60000}",
+               initialDelayString = "${points.tiers.refresh-interval-ms:60000}")
+    public void reloadTiers() {
+        reloadLock.lock();
+        try {
+            tierTable = PointTierTable.compile(pointSettingsRepository.findAllByOrderByMinLikesAsc());
+            log.debug("Compiled {} point tiers", tierTable.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
 
-        for (PointSettings setting : settings) {
-            if (likes >= setting.getMinLikes() && likes <= setting.getMaxLikes()) {
-                // For tier1, calculate based on hundreds
-                if (setting.getTierName().equals("tier1")) {
-                    return (likes / 100) * setting.getPointsPerMilestone();
+    private PointTierTable tiers() {
+        PointTierTable table = tierTable;
+        if (table == null) {
+            reloadLock.lock();
+            try {
+                if (tierTable == null) {
+                    reloadTiers();
                 }
-                // For other tiers, return fixed points
-                return setting.getPointsPerMilestone();
+                table = tierTable;
+            } finally {
+                reloadLock.unlock();
             }
         }
+        return table;
+    }
 
-        // If likes exceed all tiers, return the highest tier points
-        return settings.isEmpty() ? 0 : settings.get(settings.size() - 1).getPointsPerMilestone();
+    /**
+     * Swap in a freshly compiled tier table once the current transaction commits, so that readers
+     * never price likes against uncommitted settings
+     */
+    private void reloadTiersAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadTiers();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reloadTiers();
+            }
+        });
     }
 
     /**
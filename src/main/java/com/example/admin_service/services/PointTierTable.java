@@ -0,0 +1,104 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.entity.PointSettings;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Point tier settings compiled into primitive arrays for pricing likes without database access or allocation.
+ * A lookup finds the same tier as scanning the settings in minLikes order for the first range containing the
+ * likes: a binary search over minLikes bounds the candidates, and a second one over the running maximum of
+ * maxLikes picks the first candidate whose range reaches the likes. Instances are immutable.
+ */
+public final class PointTierTable implements IntUnaryOperator {
+
+    private static final String PER_HUNDRED_TIER = "tier1";
+
+    private final int[] minLikes;
+    private final long[] reachUpTo; // Highest maxLikes among this tier and all tiers before it
+    private final int[] points;
+    private final boolean[] perHundredLikes;
+    private final int fallbackPoints;
+
+    private PointTierTable(List<PointSettings> settings) {
+        List<PointSettings> ordered = settings.stream()
+                .sorted(Comparator.comparing(PointSettings::getMinLikes))
+                .toList();
+        int size = ordered.size();
+
+        this.minLikes = new int[size];
+        this.reachUpTo = new long[size];
+        this.points = new int[size];
+        this.perHundredLikes = new boolean[size];
+
+        long reach = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            PointSettings setting = ordered.get(i);
+            reach = Math.max(reach, setting.getMaxLikes());
+            minLikes[i] = setting.getMinLikes();
+            reachUpTo[i] = reach;
+            points[i] = setting.getPointsPerMilestone();
+            perHundredLikes[i] = PER_HUNDRED_TIER.equals(setting.getTierName());
+        }
+
+        // If likes exceed all tiers, the highest tier points apply
+        this.fallbackPoints = size == 0 ? 0 : points[size - 1];
+    }
+
+    /**
+     * Compile the given tier settings
+     */
+    public static PointTierTable compile(List<PointSettings> settings) {
+        return new PointTierTable(settings);
+    }
+
+    /**
+     * Points earned for the given likes
+     */
+    public int pointsFor(int likes) {
+        // Candidates are the tiers starting at or below the likes
+        int candidates = Arrays.binarySearch(minLikes, likes);
+        if (candidates >= 0) {
+            while (candidates + 1 < minLikes.length && minLikes[candidates + 1] == likes) {
+                candidates++;
+            }
+            candidates++;
+        } else {
+            candidates = -candidates - 1;
+        }
+
+        // First candidate whose range reaches the likes
+        int tier = firstReaching(likes, candidates);
+        if (tier == candidates) {
+            return fallbackPoints;
+        }
+        // For tier1, calculate based on hundreds; other tiers give fixed points
+        return perHundredLikes[tier] ? (likes / 100) * points[tier] : points[tier];
+    }
+
+    @Override
+    public int applyAsInt(int likes) {
+        return pointsFor(likes);
+    }
+
+    public int size() {
+        return points.length;
+    }
+
+    private int firstReaching(int likes, int limit) {
+        int low = 0;
+        int high = limit;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (reachUpTo[mid] >= likes) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.dto.LeaderboardEntryDTO;
+import com.example.admin_service.dto.LeaderboardScores;
+import com.example.admin_service.repository.TripFluencerPointsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory rankings of all active TripFluencers, one order-statistic tree per metric, so that pages of a
+ * leaderboard and the rank of any user are answered in O(log n) without touching the database.
+ * <p>
+ * Built at startup from keyset-paged queries. Services report users whose balances changed (after their
+ * transaction commits); their current metrics are re-read together in one query on a short interval.
+ * A periodic full rebuild picks up changes made through other instances.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PointsLeaderboard {
+
+    /**
+     * Ranking metrics. Tiers follow from follower counts, so the tier leaderboard ranks by followers.
+     */
+    public enum Metric {
+        TOTAL_POINTS_EARNED, CURRENT_POINTS, TOTAL_LIKES, TIER
+    }
+
+    private record Entry(long earned, long currentPoints, long likes, long followers, String tier) {
+
+        static Entry of(LeaderboardScores scores) {
+            return new Entry(scores.getEarned(), scores.getCurrentPoints(), scores.getLikes(),
+                    scores.getFollowers(), scores.getTier());
+        }
+
+        long score(Metric metric) {
+            return switch (metric) {
+                case TOTAL_POINTS_EARNED -> earned;
+                case CURRENT_POINTS -> currentPoints;
+                case TOTAL_LIKES -> likes;
+                case TIER -> followers;
+            };
+        }
+    }
+
+    private static final int REFRESH_BATCH_SIZE = 1000;
+
+    private final TripFluencerPointsRepository pointsRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // A lock rather than a monitor: refreshes wait on the database, which must not pin a virtual thread's carrier
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final Set<Long> changedUsers = ConcurrentHashMap.newKeySet();
+
+    // Guarded by lock
+    private Map<Long, Entry> entries = new HashMap<>();
+    private Map<Metric, RankTree> trees = emptyTrees();
+    private volatile boolean loaded;
+
+    @Value("${points.leaderboard.rebuild-page-size:5000}")
+    private int rebuildPageSize;
+
+    /**
+     * Note that a user's balance or status changed; the leaderboard catches up once the transaction commits
+     */
+    public void markChanged(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changedUsers.add(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changedUsers.add(userId);
+            }
+        });
+    }
+
+    /**
+     * Note that the balances of several users changed in a transaction that has already committed
+     */
+    public void markChanged(Collection<Long> userIds) {
+        changedUsers.addAll(userIds);
+    }
+
+    /**
+     * One page of a leaderboard, ranks starting at 1
+     */
+    public List<LeaderboardEntryDTO> page(Metric metric, int offset, int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            RankTree tree = trees.get(metric);
+            // Past the end the page is empty; offset + limit may not fit in an int
+            int end = offset >= tree.size() ? offset : offset + Math.min(limit, tree.size() - offset);
+            List<LeaderboardEntryDTO> page = new ArrayList<>(end - offset);
+            for (int rank = offset; rank < end; rank++) {
+                long userId = tree.userIdAt(rank);
+                page.add(toDTO(rank, userId, tree.scoreAt(rank), entries.get(userId)));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Position of a user on a leaderboard, or null if the user is not an active TripFluencer
+     */
+    public LeaderboardEntryDTO rankOf(Metric metric, Long userId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(userId);
+            if (entry == null) {
+                return null;
+            }
+            long score = entry.score(metric);
+            return toDTO(trees.get(metric).countAhead(score, userId), userId, score, entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of ranked TripFluencers
+     */
+    public int size() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-read the metrics of users reported as changed and move them to their new positions
+     */
+    @Scheduled(fixedDelayString = "${points.leaderboard.refresh-interval-ms:1000}")
+    public void applyChanges() {
+        refreshLock.lock();
+        try {
+            if (!loaded || changedUsers.isEmpty()) {
+                return;
+            }
+
+            List<Long> batch = new ArrayList<>(REFRESH_BATCH_SIZE);
+            Iterator<Long> changed = changedUsers.iterator();
+            while (changed.hasNext()) {
+                batch.add(changed.next());
+                changed.remove();
+                if (batch.size() == REFRESH_BATCH_SIZE || !changed.hasNext()) {
+                    try {
+                        refresh(batch);
+                    } catch (RuntimeException e) {
+                        // Keep the users for the next attempt
+                        changedUsers.addAll(batch);
+                        throw e;
+                    }
+                    batch.clear();
+                }
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuild all rankings from the database
+     */
+    @Scheduled(fixedDelayString = "${points.leaderboard.rebuild-interval-ms:600000}",
+               initialDelayString = "${points.leaderboard.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        refreshLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            Map<Long, Entry> rebuilt = new HashMap<>();
+            Map<Metric, RankTree> rebuiltTrees = emptyTrees();
+
+            long afterUserId = Long.MIN_VALUE;
+            List<LeaderboardScores> page;
+            do {
+                page = pointsRepository.findLeaderboardScoresAfter(afterUserId, rebuildPageSize);
+                for (LeaderboardScores scores : page) {
+                    Entry entry = Entry.of(scores);
+                    rebuilt.put(scores.getUserId(), entry);
+                    for (Metric metric : Metric.values()) {
+                        rebuiltTrees.get(metric).insert(entry.score(metric), scores.getUserId());
+                    }
+                    afterUserId = scores.getUserId();
+                }
+            } while (page.size() == rebuildPageSize);
+
+            // Changes committed while loading stay in changedUsers and are applied on the next refresh
+            lock.writeLock().lock();
+            try {
+                entries = rebuilt;
+                trees = rebuiltTrees;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded = true;
+
+            log.info("Rebuilt points leaderboard with {} TripFluencers in {} ms",
+                    rebuilt.size(), System.currentTimeMillis() - start);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refresh(List<Long> userIds) {
+        Map<Long, Entry> current = new HashMap<>();
+        for (LeaderboardScores scores : pointsRepository.findLeaderboardScores(userIds)) {
+            current.put(scores.getUserId(), Entry.of(scores));
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Long userId : new HashSet<>(userIds)) {
+                Entry previous = current.containsKey(userId)
+                        ? entries.put(userId, current.get(userId))
+                        : entries.remove(userId);
+                for (Metric metric : Metric.values()) {
+                    RankTree tree = trees.get(metric);
+                    if (previous != null) {
+                        tree.remove(previous.score(metric), userId);
+                    }
+                    if (current.containsKey(userId)) {
+                        tree.insert(current.get(userId).score(metric), userId);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            refreshLock.lock();
+            try {
+                if (!loaded) {
+                    rebuild();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+    }
+
+    private static Map<Metric, RankTree> emptyTrees() {
+        Map<Metric, RankTree> trees = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            trees.put(metric, new RankTree());
+        }
+        return trees;
+    }
+
+    private static LeaderboardEntryDTO toDTO(int rank, long userId, long score, Entry entry) {
+        LeaderboardEntryDTO dto = new LeaderboardEntryDTO();
+        dto.setRank(rank + 1L);
+        dto.setUserId(userId);
+        dto.setScore(score);
+        dto.setTier(entry.tier());
+        return dto;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.dto.PointsLedgerTotals;
+import com.example.admin_service.entity.PointsLedgerEntry;
+import com.example.admin_service.entity.TripFluencerPoints;
+import com.example.admin_service.repository.PointsLedgerRepository;
+import com.example.admin_service.repository.TripFluencerPointsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Records point changes as append-only ledger entries and derives balances from the snapshot on
+ * TripFluencerPoints plus the ledger tail. Credits are plain inserts and never wait on each other;
+ * only debits lock the user's row, so that two debits cannot both spend the same balance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PointsLedgerService {
+
+    private final PointsLedgerRepository ledgerRepository;
+    private final TripFluencerPointsRepository pointsRepository;
+    private final PointsLeaderboard leaderboard;
+
+    /**
+     * Record earned points (and the likes that earned them, if any)
+     */
+    @Transactional
+    public void credit(Long userId, int points, int likes, String reason, String source) {
+        requireTripFluencer(userId);
+        ledgerRepository.save(PointsLedgerEntry.credit(userId, points, likes, reason, source));
+        leaderboard.markChanged(userId);
+    }
+
+    /**
+     * Record spent points if the current balance covers them.
+     * The action ("deduct", "redeem") is only used in the insufficient-points message.
+     */
+    @Transactional
+    public void debit(Long userId, int points, String reason, String source, Long referenceId, String action) {
+        TripFluencerPoints snapshot = pointsRepository.findByUserIdForUpdate(userId)
+                .orElseThrow(() -> new RuntimeException("TripFluencer not found for user: " + userId));
+
+        long balance = snapshot.getCurrentPoints() + tailOf(snapshot).getDelta();
+        if (points <= 0 || balance < points) {
+            throw new RuntimeException("Insufficient points. User has: " + balance +
+                    ", trying to " + action + ": " + points);
+        }
+
+        PointsLedgerEntry entry = PointsLedgerEntry.debit(userId, points, reason, source);
+        entry.setReferenceId(referenceId);
+        ledgerRepository.save(entry);
+        leaderboard.markChanged(userId);
+    }
+
+    /**
+     * Record points returned to a user
+     */
+    @Transactional
+    public void refund(Long userId, int points, String reason, String source, Long referenceId) {
+        requireTripFluencer(userId);
+        PointsLedgerEntry entry = PointsLedgerEntry.refund(userId, points, reason, source);
+        entry.setReferenceId(referenceId);
+        ledgerRepository.save(entry);
+        leaderboard.markChanged(userId);
+    }
+
+    /**
+     * Ledger entries of one user written after its snapshot
+     */
+    public PointsLedgerTotals tailOf(TripFluencerPoints snapshot) {
+        return ledgerRepository.sumTail(snapshot.getUserId(), snapshot.getSnapshotXid());
+    }
+
+    /**
+     * Ledger tails of many users in one query, keyed by user id; users without a tail are absent
+     */
+    public Map<Long, PointsLedgerTotals> tailsOf(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return ledgerRepository.sumTails(userIds).stream()
+                .collect(Collectors.toMap(PointsLedgerTotals::getUserId, Function.identity()));
+    }
+
+    /**
+     * Points earned by active TripFluencers that are not yet part of their snapshots
+     */
+    public long earnedTailOfActive() {
+        Long earned = ledgerRepository.sumEarnedTailOfActive();
+        return earned != null ? earned : 0L;
+    }
+
+    /**
+     * Periodically fold committed ledger entries into the snapshots, keeping ledger tails short
+     */
+    @Scheduled(fixedDelayString = "${points.snapshot.interval-ms:60000}",
+               initialDelayString = "${points.snapshot.interval-ms:60000}")
+    @Transactional
+    public void takeSnapshots() {
+        int advanced = ledgerRepository.foldCommittedEntries();
+        if (advanced > 0) {
+            log.info("Advanced {} points snapshots", advanced);
+        }
+    }
+
+    private void requireTripFluencer(Long userId) {
+        if (!pointsRepository.existsByUserId(userId)) {
+            throw new RuntimeException("TripFluencer not found for user: " + userId);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.config.OutboundExecutors;
+import com.example.admin_service.dto.PromotionResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived read-through cache for the promotion listings proxied from the service-provider API.
+ * Entries younger than the fresh TTL are served as-is; older entries are still served until the stale TTL
+ * while a single background refresh replaces them. Mutations patch or drop the affected entries.
+ * Listings are cached per caller (the SHA-256 of the bearer token they were fetched with), so one admin's
+ * listing, and the refresh running with their token, is never served to another admin.
+ */
+@Service
+@Slf4j
+public class PromotionListingCache {
+
+    public static final String ALL = "all";
+    public static final String ACTIVE = "active";
+    private static final String STATUS_PREFIX = "status:";
+
+    private final Cache<ListingKey, Listing> listings;
+    private final Set<ListingKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService refreshExecutor;
+    private final long freshTtlNanos;
+
+    public PromotionListingCache(MeterRegistry meterRegistry,
+                                 OutboundExecutors outboundExecutors,
+                                 @Value("${promotions.cache.fresh-ttl-seconds:15}") long freshTtlSeconds,
+                                 @Value("${promotions.cache.stale-ttl-seconds:120}") long staleTtlSeconds) {
+        this.freshTtlNanos = Duration.ofSeconds(freshTtlSeconds).toNanos();
+        this.listings = Caffeine.newBuilder()
+                .maximumSize(500)
+                .expireAfterWrite(Duration.ofSeconds(Math.max(freshTtlSeconds, staleTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, listings, "promotionListings");
+
+        this.refreshExecutor = outboundExecutors.newBoundedExecutor("promotion-refresh-", 2);
+    }
+
+    public static String statusKey(String status) {
+        return STATUS_PREFIX + status.trim().toUpperCase();
+    }
+
+    /**
+     * Return the caller's cached listing, loading it with the caller's token on a miss. A stale hit is
+     * returned immediately and refreshed in the background with the given loader.
+     */
+    public List<PromotionResponseDTO> get(String listing, String token, Supplier<List<PromotionResponseDTO>> loader) {
+        ListingKey key = new ListingKey(listing, hash(token));
+        Listing cached = listings.getIfPresent(key);
+        if (cached == null) {
+            long startGeneration = generation.get();
+            Listing loaded = new Listing(List.copyOf(loader.get()), System.nanoTime());
+            storeIfCurrent(key, loaded, startGeneration);
+            return loaded.promotions;
+        }
+
+        if (System.nanoTime() - cached.loadedAt > freshTtlNanos) {
+            refreshAsync(key, loader);
+        }
+        return cached.promotions;
+    }
+
+    /**
+     * Apply an updated promotion to every cached listing: replace it where it still belongs,
+     * drop it where it no longer does, and invalidate listings whose membership cannot be decided locally
+     */
+    public void patch(PromotionResponseDTO updated) {
+        if (updated == null || updated.getId() == null) {
+            invalidateAll();
+            return;
+        }
+        generation.incrementAndGet();
+        for (ListingKey key : listings.asMap().keySet()) {
+            listings.asMap().computeIfPresent(key, (k, listing) -> patched(k.listing(), listing, updated));
+        }
+    }
+
+    /**
+     * Remove a deleted promotion from every cached listing
+     */
+    public void remove(Long id) {
+        generation.incrementAndGet();
+        for (ListingKey key : listings.asMap().keySet()) {
+            listings.asMap().computeIfPresent(key, (k, listing) -> {
+                List<PromotionResponseDTO> promotions = new ArrayList<>(listing.promotions);
+                promotions.removeIf(p -> Objects.equals(p.getId(), id));
+                return new Listing(List.copyOf(promotions), listing.loadedAt);
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        listings.invalidateAll();
+    }
+
+    private Listing patched(String key, Listing listing, PromotionResponseDTO updated) {
+        if (ACTIVE.equals(key)) {
+            // "Active" is decided by the service provider (flags and validity dates), so refetch it
+            return null;
+        }
+
+        boolean belongs = ALL.equals(key)
+                || (updated.getStatus() != null && key.equals(statusKey(updated.getStatus())));
+
+        List<PromotionResponseDTO> promotions = new ArrayList<>(listing.promotions);
+        int index = -1;
+        for (int i = 0; i < promotions.size(); i++) {
+            if (Objects.equals(promotions.get(i).getId(), updated.getId())) {
+                index = i;
+                break;
+            }
+        }
+
+        if (index >= 0 && belongs) {
+            promotions.set(index, updated);
+        } else if (index >= 0) {
+            promotions.remove(index);
+        } else if (belongs) {
+            // Newly belongs here but its position in the listing is unknown
+            return null;
+        } else {
+            return listing;
+        }
+        return new Listing(List.copyOf(promotions), listing.loadedAt);
+    }
+
+    /**
+     * Cache a listing loaded since startGeneration, unless a mutation landed while it was loading.
+     * The generation is checked again after the write: a mutation either patched the new entry or is seen here.
+     */
+    private void storeIfCurrent(ListingKey key, Listing loaded, long startGeneration) {
+        if (generation.get() != startGeneration) {
+            return;
+        }
+        listings.put(key, loaded);
+        if (generation.get() != startGeneration) {
+            listings.asMap().remove(key, loaded);
+        }
+    }
+
+    private void refreshAsync(ListingKey key, Supplier<List<PromotionResponseDTO>> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        long startGeneration = generation.get();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Listing refreshed = new Listing(List.copyOf(loader.get()), System.nanoTime());
+                    // Skip the write if a mutation landed while the refresh was in flight
+                    storeIfCurrent(key, refreshed, startGeneration);
+                } catch (Exception e) {
+                    log.warn("Background refresh of promotion listing '{}' failed: {}", key.listing(), e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(key);
+            log.warn("Could not schedule refresh of promotion listing '{}': {}", key.listing(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(
+                    String.valueOf(token).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record ListingKey(String listing, String caller) {
+    }
+
+    private static class Listing {
+        private final List<PromotionResponseDTO> promotions;
+        private final long loadedAt;
+
+        private Listing(List<PromotionResponseDTO> promotions, long loadedAt) {
+            this.promotions = promotions;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.admin_service.services;
 
+import com.example.admin_service.dto.BulkOperationResultDTO;
 import com.example.admin_service.dto.CreatePromotionDTO;
 import com.example.admin_service.dto.PromotionResponseDTO;
 import com.example.admin_service.dto.UpdatePromotionStatusDTO;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
 import java.util.List;
 
 @Service
@@ -20,6 +22,9 @@ import java.util.List;
 public class PromotionService {
 
     private final RestTemplate restTemplate;
+    private final ConditionalGetClient conditionalGetClient;
+    private final BulkOperationExecutor bulkOperationExecutor;
+    private final PromotionListingCache listingCache;
 
     @Value("${serviceprovider.api.url}")
     private String serviceProviderApiUrl;
@@ -28,6 +33,10 @@ public class PromotionService {
      * Get all promotions
      */
     public List<PromotionResponseDTO> getAllPromotions(String token) {
+        return listingCache.get(PromotionListingCache.ALL, token, () -> fetchAllPromotions(token));
+    }
+
+    private List<PromotionResponseDTO> fetchAllPromotions(String token) {
         try {
             String url = serviceProviderApiUrl + "/service/promotions/all";
             log.info("Fetching all promotions from: {}", url);
@@ -36,12 +45,9 @@ public class PromotionService {
             headers.set("Authorization", "Bearer " + token);
             headers.setContentType(MediaType.APPLICATION_JSON);
 
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<List<PromotionResponseDTO>> response = restTemplate.exchange(
+            ResponseEntity<List<PromotionResponseDTO>> response = conditionalGetClient.get(
                 url,
-                HttpMethod.GET,
-                entity,
+                headers,
                 new ParameterizedTypeReference<List<PromotionResponseDTO>>() {}
             );
 
@@ -70,12 +76,9 @@ public class PromotionService {
             headers.set("Authorization", "Bearer " + token);
             headers.setContentType(MediaType.APPLICATION_JSON);
 
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<PromotionResponseDTO> response = restTemplate.exchange(
+            ResponseEntity<PromotionResponseDTO> response = conditionalGetClient.get(
                 url,
-                HttpMethod.GET,
-                entity,
+                headers,
                 PromotionResponseDTO.class
             );
 
@@ -96,6 +99,11 @@ public class PromotionService {
      * Get promotions by status
      */
     public List<PromotionResponseDTO> getPromotionsByStatus(String status, String token) {
+        return listingCache.get(PromotionListingCache.statusKey(status), token,
+                () -> fetchPromotionsByStatus(status, token));
+    }
+
+    private List<PromotionResponseDTO> fetchPromotionsByStatus(String status, String token) {
         try {
             String url = serviceProviderApiUrl + "/service/promotions/status/" + status;
             log.info("Fetching promotions with status: {} from: {}", status, url);
@@ -104,12 +112,9 @@ public class PromotionService {
             headers.set("Authorization", "Bearer " + token);
             headers.setContentType(MediaType.APPLICATION_JSON);
 
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<List<PromotionResponseDTO>> response = restTemplate.exchange(
+            ResponseEntity<List<PromotionResponseDTO>> response = conditionalGetClient.get(
                 url,
-                HttpMethod.GET,
-                entity,
+                headers,
                 new ParameterizedTypeReference<List<PromotionResponseDTO>>() {}
             );
 
@@ -130,6 +135,10 @@ public class PromotionService {
      * Get active promotions
      */
     public List<PromotionResponseDTO> getActivePromotions(String token) {
+        return listingCache.get(PromotionListingCache.ACTIVE, token, () -> fetchActivePromotions(token));
+    }
+
+    private List<PromotionResponseDTO> fetchActivePromotions(String token) {
         try {
             String url = serviceProviderApiUrl + "/service/promotions/active";
             log.info("Fetching active promotions from: {}", url);
@@ -138,12 +147,9 @@ public class PromotionService {
             headers.set("Authorization", "Bearer " + token);
             headers.setContentType(MediaType.APPLICATION_JSON);
 
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<List<PromotionResponseDTO>> response = restTemplate.exchange(
+            ResponseEntity<List<PromotionResponseDTO>> response = conditionalGetClient.get(
                 url,
-                HttpMethod.GET,
-                entity,
+                headers,
                 new ParameterizedTypeReference<List<PromotionResponseDTO>>() {}
             );
 
@@ -192,6 +198,8 @@ public class PromotionService {
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 log.info("Successfully updated promotion {} status to: {}", id, status);
+                invalidatePromotionBodies();
+                listingCache.patch(response.getBody());
                 return response.getBody();
             } else {
                 log.warn("Failed to update promotion status. Response: {}", response.getStatusCode());
@@ -226,6 +234,8 @@ public class PromotionService {
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 log.info("Successfully toggled promotion {} active status", id);
+                invalidatePromotionBodies();
+                listingCache.patch(response.getBody());
                 return response.getBody();
             } else {
                 log.warn("Failed to toggle promotion active status. Response: {}", response.getStatusCode());
@@ -260,6 +270,8 @@ public class PromotionService {
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 log.info("Successfully updated promotion with ID: {}", id);
+                invalidatePromotionBodies();
+                listingCache.patch(response.getBody());
                 return response.getBody();
             } else {
                 log.warn("Failed to update promotion. Response: {}", response.getStatusCode());
@@ -293,6 +305,8 @@ public class PromotionService {
 
             if (response.getStatusCode() == HttpStatus.OK) {
                 log.info("Successfully deleted promotion with ID: {}", id);
+                invalidatePromotionBodies();
+                listingCache.remove(id);
                 return true;
             } else {
                 log.warn("Failed to delete promotion. Response: {}", response.getStatusCode());
@@ -303,4 +317,31 @@ public class PromotionService {
             throw new RuntimeException("Failed to delete promotion", e);
         }
     }
+
+    /**
+     * Update the status of many promotions in parallel
+     */
+    public BulkOperationResultDTO bulkUpdatePromotionStatus(List<Long> ids, String status, String token) {
+        return bulkOperationExecutor.execute(ids, serviceProviderHost(),
+                id -> updatePromotionStatus(id, status, token), result -> result != null);
+    }
+
+    /**
+     * Delete many promotions in parallel
+     */
+    public BulkOperationResultDTO bulkDeletePromotions(List<Long> ids, String token) {
+        return bulkOperationExecutor.execute(ids, serviceProviderHost(),
+                id -> deletePromotion(id, token), Boolean::booleanValue);
+    }
+
+    /**
+     * Drop the cached promotion bodies; a promotion change can affect its own URL and every listing
+     */
+    private void invalidatePromotionBodies() {
+        conditionalGetClient.invalidate(serviceProviderApiUrl + "/service/promotions/");
+    }
+
+    private String serviceProviderHost() {
+        return URI.create(serviceProviderApiUrl).getHost();
+    }
 }
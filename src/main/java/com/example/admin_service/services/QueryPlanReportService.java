@@ -0,0 +1,322 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.dto.QueryPlanDTO;
+import com.example.admin_service.entity.Commission;
+import com.example.admin_service.repository.CommissionRepository;
+import com.example.admin_service.repository.PointRedemptionRepository;
+import com.example.admin_service.repository.TripFluencerPointsRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Runs EXPLAIN on every query of CommissionRepository, PointRedemptionRepository and TripFluencerPointsRepository
+ * and flags sequential scans of tables above a size threshold. Each catalog entry calls the real repository
+ * method with sample arguments on a Hibernate session over a PlanCapturingConnection, so the statement explained
+ * is the SQL Hibernate generates for it (native, JPQL or derived, including paging) with the same bindings.
+ * Query methods without a catalog entry are reported as errors.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QueryPlanReportService {
+
+    /**
+     * Repositories bound to the capturing session, and its connection for statements issued with plain JDBC
+     */
+    private record Targets(CommissionRepository commissions,
+                           PointRedemptionRepository redemptions,
+                           TripFluencerPointsRepository points,
+                           Connection connection) {
+
+        void jdbc(String sql, Object... params) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    statement.setObject(i + 1, params[i]);
+                }
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private record PlannedQuery(String name, Consumer<Targets> call) {
+    }
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            CommissionRepository.class, PointRedemptionRepository.class, TripFluencerPointsRepository.class);
+
+    private static final String SAMPLE_MONTH = "2025-01";
+    private static final String SAMPLE_PROVIDER = "sample provider";
+    private static final String SAMPLE_SEARCH = "sample";
+    private static final LocalDate SAMPLE_START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate SAMPLE_DATE = LocalDate.of(2025, 1, 31);
+    private static final long SAMPLE_ID = Long.MAX_VALUE;
+    private static final long SAMPLE_USER_ID = 1L;
+    private static final List<Long> SAMPLE_USER_IDS = List.of(1L, 2L, 3L);
+    // Page sizes as the services request them
+    private static final Pageable SAMPLE_KEYSET_PAGE = PageRequest.of(0, 51);
+    private static final int SAMPLE_PAGE_SIZE = 51;
+    private static final int SAMPLE_REBUILD_PAGE_SIZE = 5000;
+
+    private static final List<PlannedQuery> QUERIES = List.of(
+            // CommissionRepository
+            new PlannedQuery("CommissionRepository.findByTransactionId",
+                    t -> t.commissions().findByTransactionId("TXN-0")),
+            new PlannedQuery("CommissionRepository.findPageAfter",
+                    t -> t.commissions().findPageAfter(SAMPLE_DATE, SAMPLE_ID, SAMPLE_KEYSET_PAGE)),
+            new PlannedQuery("CommissionRepository.findPageByMonthAfter",
+                    t -> t.commissions().findPageByMonthAfter(SAMPLE_MONTH, SAMPLE_DATE, SAMPLE_ID, SAMPLE_KEYSET_PAGE)),
+            new PlannedQuery("CommissionRepository.findPageByServiceProviderAfter",
+                    t -> t.commissions().findPageByServiceProviderAfter(SAMPLE_PROVIDER, SAMPLE_DATE, SAMPLE_ID,
+                            SAMPLE_KEYSET_PAGE)),
+            new PlannedQuery("CommissionRepository.findPageByProviderTypeAfter",
+                    t -> t.commissions().findPageByProviderTypeAfter(Commission.ProviderType.HOTEL, SAMPLE_DATE,
+                            SAMPLE_ID, SAMPLE_KEYSET_PAGE)),
+            new PlannedQuery("CommissionRepository.findPageByDateBetweenAfter",
+                    t -> t.commissions().findPageByDateBetweenAfter(SAMPLE_START, SAMPLE_DATE, SAMPLE_DATE, SAMPLE_ID,
+                            SAMPLE_KEYSET_PAGE)),
+            new PlannedQuery("CommissionRepository.searchPageAfter",
+                    t -> t.commissions().searchPageAfter(SAMPLE_SEARCH, SAMPLE_DATE, SAMPLE_ID, SAMPLE_KEYSET_PAGE)),
+            new PlannedQuery("CommissionRepository.countByMonth",
+                    t -> t.commissions().countByMonth(SAMPLE_MONTH)),
+            new PlannedQuery("CommissionRepository.countByServiceProvider",
+                    t -> t.commissions().countByServiceProvider(SAMPLE_PROVIDER)),
+            new PlannedQuery("CommissionRepository.countByProviderType",
+                    t -> t.commissions().countByProviderType(Commission.ProviderType.HOTEL)),
+            new PlannedQuery("CommissionRepository.countByDateBetween",
+                    t -> t.commissions().countByDateBetween(SAMPLE_START, SAMPLE_DATE)),
+            new PlannedQuery("CommissionRepository.countSearchCommissions",
+                    t -> t.commissions().countSearchCommissions(SAMPLE_SEARCH)),
+            // Only called for date ranges; month-only statistics read the rollup table
+            new PlannedQuery("CommissionRepository.sumByProviderType",
+                    t -> t.commissions().sumByProviderType(null, SAMPLE_START, SAMPLE_DATE)),
+            new PlannedQuery("CommissionRepository.searchRanked",
+                    t -> t.commissions().searchRanked(SAMPLE_SEARCH, "%" + SAMPLE_SEARCH + "%", SAMPLE_PAGE_SIZE, 0)),
+            new PlannedQuery("CommissionRepository.countMatching",
+                    t -> t.commissions().countMatching("%" + SAMPLE_SEARCH + "%")),
+            new PlannedQuery("CommissionRepository.searchByTransactionIdPrefix",
+                    t -> t.commissions().searchByTransactionIdPrefix("txn%", SAMPLE_PAGE_SIZE, 0)),
+            new PlannedQuery("CommissionRepository.countByTransactionIdPrefix",
+                    t -> t.commissions().countByTransactionIdPrefix("txn%")),
+
+            // PointRedemptionRepository
+            new PlannedQuery("PointRedemptionRepository.findByUserId",
+                    t -> t.redemptions().findByUserId(SAMPLE_USER_ID)),
+            new PlannedQuery("PointRedemptionRepository.findByStatus",
+                    t -> t.redemptions().findByStatus("CANCELLED")),
+            new PlannedQuery("PointRedemptionRepository.findAllByOrderByRedeemedAtDesc",
+                    t -> t.redemptions().findAllByOrderByRedeemedAtDesc()),
+            new PlannedQuery("PointRedemptionRepository.findByUserIdOrderByRedeemedAtDesc",
+                    t -> t.redemptions().findByUserIdOrderByRedeemedAtDesc(SAMPLE_USER_ID)),
+            new PlannedQuery("PointRedemptionRepository.countActiveRedemptions",
+                    t -> t.redemptions().countActiveRedemptions()),
+            new PlannedQuery("PointRedemptionRepository.sumPointsUsed",
+                    t -> t.redemptions().sumPointsUsed()),
+            new PlannedQuery("PointRedemptionRepository.updateStatusIfCurrent",
+                    t -> t.redemptions().updateStatusIfCurrent(SAMPLE_ID, "ACTIVE", "CANCELLED")),
+            new PlannedQuery("PointRedemptionService.expireOldRedemptions",
+                    t -> t.jdbc(PointRedemptionService.EXPIRE_CHUNK,
+                            Timestamp.valueOf(SAMPLE_DATE.atStartOfDay()), 1000)),
+
+            // TripFluencerPointsRepository
+            new PlannedQuery("TripFluencerPointsRepository.findByUserId",
+                    t -> t.points().findByUserId(SAMPLE_USER_ID)),
+            new PlannedQuery("TripFluencerPointsRepository.findAllByIsActiveTrue",
+                    t -> t.points().findAllByIsActiveTrue()),
+            new PlannedQuery("TripFluencerPointsRepository.findAllByTier",
+                    t -> t.points().findAllByTier("PLATINUM")),
+            new PlannedQuery("TripFluencerPointsRepository.countActiveTripFluencers",
+                    t -> t.points().countActiveTripFluencers()),
+            new PlannedQuery("TripFluencerPointsRepository.sumTotalPointsEarned",
+                    t -> t.points().sumTotalPointsEarned()),
+            new PlannedQuery("TripFluencerPointsRepository.findByUserIdForUpdate",
+                    t -> t.points().findByUserIdForUpdate(SAMPLE_USER_ID)),
+            new PlannedQuery("TripFluencerPointsRepository.existsByUserId",
+                    t -> t.points().existsByUserId(SAMPLE_USER_ID)),
+            new PlannedQuery("TripFluencerPointsRepository.findAllByUserIdIn",
+                    t -> t.points().findAllByUserIdIn(SAMPLE_USER_IDS)),
+            new PlannedQuery("TripFluencerPointsRepository.findLeaderboardScoresAfter",
+                    t -> t.points().findLeaderboardScoresAfter(Long.MIN_VALUE, SAMPLE_REBUILD_PAGE_SIZE)),
+            new PlannedQuery("TripFluencerPointsRepository.findLeaderboardScores",
+                    t -> t.points().findLeaderboardScores(SAMPLE_USER_IDS))
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+
+    @Value("${db.query-plan-report.min-table-rows:10000}")
+    private long minTableRows;
+
+    @Value("${db.query-plan-report.on-startup:false}")
+    private boolean reportOnStartup;
+
+    /**
+     * EXPLAIN every repository query; queries that fail to plan are reported with their error
+     */
+    public List<QueryPlanDTO> explainRepositoryQueries() throws SQLException {
+        Map<String, Long> tableRows = estimatedTableRows();
+        List<QueryPlanDTO> report = new ArrayList<>(QUERIES.size());
+
+        try (Connection connection = dataSource.getConnection()) {
+            // EXPLAIN without ANALYZE never executes the statement; read-only, and every call is rolled back
+            connection.setReadOnly(true);
+            PlanCapturingConnection capturing = new PlanCapturingConnection(connection);
+            try (Session session = entityManagerFactory.unwrap(SessionFactory.class)
+                    .withOptions().connection(capturing.connection()).openSession()) {
+                JpaRepositoryFactory repositories = new JpaRepositoryFactory(session);
+                Targets targets = new Targets(
+                        repositories.getRepository(CommissionRepository.class),
+                        repositories.getRepository(PointRedemptionRepository.class),
+                        repositories.getRepository(TripFluencerPointsRepository.class),
+                        capturing.connection());
+
+                for (PlannedQuery query : QUERIES) {
+                    report.add(explain(query, session, targets, capturing, tableRows));
+                }
+            }
+        }
+
+        for (String method : uncatalogued()) {
+            QueryPlanDTO dto = new QueryPlanDTO();
+            dto.setQuery(method);
+            dto.setError("No sample call in the query plan catalog");
+            report.add(dto);
+        }
+        return report;
+    }
+
+    private QueryPlanDTO explain(PlannedQuery query, Session session, Targets targets,
+                                 PlanCapturingConnection capturing, Map<String, Long> tableRows) {
+        QueryPlanDTO dto = new QueryPlanDTO();
+        dto.setQuery(query.name());
+
+        // A transaction per call, so that a statement failing to plan does not abort the others
+        session.beginTransaction();
+        RuntimeException failure = null;
+        try {
+            query.call().accept(targets);
+        } catch (RuntimeException e) {
+            // Expected for calls that need a row (the capture returns none) once the plan is recorded
+            failure = e;
+        } finally {
+            session.getTransaction().rollback();
+            session.clear();
+        }
+
+        List<PlanCapturingConnection.CapturedPlan> plans = capturing.drain();
+        if (plans.isEmpty()) {
+            dto.setError(failure != null ? failure.getMessage() : "The call issued no statement");
+            return dto;
+        }
+
+        try {
+            PlanCapturingConnection.CapturedPlan captured = plans.get(0);
+            JsonNode plan = objectMapper.readTree(captured.planJson()).get(0).get("Plan");
+
+            List<String> sequentialScans = new ArrayList<>();
+            collectSequentialScans(plan, sequentialScans);
+
+            dto.setSql(captured.sql());
+            dto.setRootNode(plan.path("Node Type").asText());
+            dto.setTotalCost(plan.path("Total Cost").asDouble());
+            dto.setSequentialScans(sequentialScans);
+            dto.setFlagged(sequentialScans.stream()
+                    .anyMatch(table -> tableRows.getOrDefault(table, 0L) >= minTableRows));
+        } catch (Exception e) {
+            dto.setError(e.getMessage());
+        }
+        return dto;
+    }
+
+    /**
+     * Query methods declared on the reported repositories that have no catalog entry
+     */
+    static List<String> uncatalogued() {
+        Set<String> catalogued = QUERIES.stream().map(PlannedQuery::name).collect(Collectors.toSet());
+        List<String> missing = new ArrayList<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                String name = repository.getSimpleName() + "." + method.getName();
+                if (!method.isDefault() && !Modifier.isStatic(method.getModifiers()) && !catalogued.contains(name)) {
+                    missing.add(name);
+                }
+            }
+        }
+        Collections.sort(missing);
+        return missing;
+    }
+
+    /**
+     * Log the report once the application is up, if enabled
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportOnStartup() {
+        if (!reportOnStartup) {
+            return;
+        }
+        try {
+            for (QueryPlanDTO plan : explainRepositoryQueries()) {
+                if (plan.getError() != null) {
+                    log.warn("Could not explain {}: {}", plan.getQuery(), plan.getError());
+                } else if (plan.isFlagged()) {
+                    log.warn("{} uses a sequential scan on {}", plan.getQuery(), plan.getSequentialScans());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to build query plan report: {}", e.getMessage(), e);
+        }
+    }
+
+    private void collectSequentialScans(JsonNode plan, List<String> tables) {
+        if (plan.path("Node Type").asText().equals("Seq Scan")) {
+            tables.add(plan.path("Relation Name").asText());
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectSequentialScans(child, tables);
+        }
+    }
+
+    private Map<String, Long> estimatedTableRows() {
+        Map<String, Long> rows = new HashMap<>();
+        jdbcTemplate.query("SELECT c.relname, c.reltuples::bigint FROM pg_class c " +
+                        "WHERE c.relkind = 'r' AND pg_table_is_visible(c.oid) " +
+                        "AND c.relname IN ('commissions', 'point_redemptions', 'tripfluencer_points', 'points_ledger')",
+                rs -> {
+                    rows.put(rs.getString(1), rs.getLong(2));
+                });
+        return rows;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.admin_service.services;
+
+import java.util.SplittableRandom;
+
+/**
+ * Order-statistic treap of (score, userId) pairs, ordered by score descending and then user id ascending.
+ * Every node carries its subtree size, so inserting, removing, finding the rank of an entry and finding the
+ * entry at a rank all take O(log n) expected time. Not thread-safe; PointsLeaderboard guards access.
+ */
+final class RankTree {
+
+    private static final class Node {
+        private final long score;
+        private final long userId;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(long score, long userId, int priority) {
+            this.score = score;
+            this.userId = userId;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    void insert(long score, long userId) {
+        Node[] parts = split(root, score, userId);
+        root = merge(merge(parts[0], new Node(score, userId, random.nextInt())), parts[1]);
+    }
+
+    void remove(long score, long userId) {
+        root = remove(root, score, userId);
+    }
+
+    /**
+     * Number of entries ranked ahead of the given one (its zero-based rank if present)
+     */
+    int countAhead(long score, long userId) {
+        int ahead = 0;
+        Node node = root;
+        while (node != null) {
+            if (compare(score, userId, node) <= 0) {
+                node = node.left;
+            } else {
+                ahead += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return ahead;
+    }
+
+    /**
+     * User id of the entry at the given zero-based rank
+     */
+    long userIdAt(int rank) {
+        return nodeAt(rank).userId;
+    }
+
+    /**
+     * Score of the entry at the given zero-based rank
+     */
+    long scoreAt(int rank) {
+        return nodeAt(rank).score;
+    }
+
+    private Node nodeAt(int rank) {
+        if (rank < 0 || rank >= size()) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of " + size());
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    // Splits into entries ranked ahead of (score, userId) and the rest
+    private static Node[] split(Node node, long score, long userId) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        if (compare(score, userId, node) > 0) {
+            Node[] parts = split(node.right, score, userId);
+            node.right = parts[0];
+            update(node);
+            return new Node[] {node, parts[1]};
+        }
+        Node[] parts = split(node.left, score, userId);
+        node.left = parts[1];
+        update(node);
+        return new Node[] {parts[0], node};
+    }
+
+    private static Node merge(Node ahead, Node behind) {
+        if (ahead == null) {
+            return behind;
+        }
+        if (behind == null) {
+            return ahead;
+        }
+        if (ahead.priority > behind.priority) {
+            ahead.right = merge(ahead.right, behind);
+            update(ahead);
+            return ahead;
+        }
+        behind.left = merge(ahead, behind.left);
+        update(behind);
+        return behind;
+    }
+
+    private static Node remove(Node node, long score, long userId) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(score, userId, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, score, userId);
+        } else {
+            node.right = remove(node.right, score, userId);
+        }
+        update(node);
+        return node;
+    }
+
+    // Negative if (score, userId) ranks ahead of the node
+    private static int compare(long score, long userId, Node node) {
+        if (score != node.score) {
+            return Long.compare(node.score, score);
+        }
+        return Long.compare(userId, node.userId);
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -1,30 +1,64 @@
 // services/ServiceProviderUserDetailsService.java
 package com.example.admin_service.services;
 
+import com.example.admin_service.dto.AdminPrincipalView;
 import com.example.admin_service.entity.Admin;
 import com.example.admin_service.entity.AdminPrincipal;
 //import com.example.admin_service.entity.ServiceProvider;
 //import com.example.admin_service.entity.ServiceProviderPrincipal;
 import com.example.admin_service.repository.AdminRepo;
 //import com.example.admin_service.repository.ServiceProviderRepo;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.List;
+
 @Service
-@RequiredArgsConstructor
 public class ServiceProviderUserDetailsService implements UserDetailsService {
 
     private final AdminRepo adminRepo;
 
+    // Short-lived principals keyed by the identifier they were looked up with (email or username)
+    private final Cache<String, UserDetails> principalCache;
+
+    public ServiceProviderUserDetailsService(AdminRepo adminRepo,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${security.principal.cache.max-size:1000}") long maxSize,
+                                             @Value("${security.principal.cache.ttl-seconds:30}") long ttlSeconds) {
+        this.adminRepo = adminRepo;
+        this.principalCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principalCache, "adminPrincipals");
+    }
+
     @Override
     public UserDetails loadUserByUsername(String identifier) throws UsernameNotFoundException {
-        // Try to find admin by email first
-        Admin admin = adminRepo.findByEmail(identifier).orElse(null);
-        if (admin != null) {
-            return new AdminPrincipal(admin);
+        UserDetails cached = principalCache.getIfPresent(identifier);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Email or username in a single query; an email match wins, as it did when these were two lookups
+        List<AdminPrincipalView> matches = adminRepo.findPrincipalsByEmailOrUsername(identifier);
+        AdminPrincipalView match = matches.stream()
+                .filter(view -> identifier.equals(view.getEmail()))
+                .findFirst()
+                .orElse(matches.isEmpty() ? null : matches.get(0));
+        if (match != null) {
+            UserDetails principal = new AdminPrincipal(match);
+            principalCache.put(identifier, principal);
+            return principal;
         }
 
         // Try to find service provider by email
@@ -39,12 +73,6 @@ public class ServiceProviderUserDetailsService implements UserDetailsService {
 //            return new ServiceProviderPrincipal(serviceProvider);
 //        }
 
-        // Try to find admin by username (for JWT token validation)
-        admin = adminRepo.findByUsername(identifier).orElse(null);
-        if (admin != null) {
-            return new AdminPrincipal(admin);
-        }
-
         throw new UsernameNotFoundException("User not found with identifier: " + identifier);
     }
 
@@ -56,6 +84,12 @@ public class ServiceProviderUserDetailsService implements UserDetailsService {
 //        return new ServiceProviderPrincipal(serviceProvider);
 //    }
 
+    // Drop cached principals of an admin, e.g. after their status changed
+    public void evictPrincipal(String username, String email) {
+        principalCache.invalidate(username);
+        principalCache.invalidate(email);
+    }
+
     // Helper method to load admin by email (for login)
     public UserDetails loadAdminByEmail(String email) throws UsernameNotFoundException {
         Admin admin = adminRepo.findByEmail(email)
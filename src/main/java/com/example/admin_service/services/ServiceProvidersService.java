@@ -18,6 +18,7 @@ import java.util.Map;
 public class ServiceProvidersService {
 
     private final RestTemplate restTemplate;
+    private final ConditionalGetClient conditionalGetClient;
 
     @Value("${serviceprovider.api.url}")
     private String serviceProviderApiUrl;
@@ -31,12 +32,9 @@ public class ServiceProvidersService {
             headers.set("Authorization", "Bearer " + token);
             headers.setContentType(MediaType.APPLICATION_JSON);
 
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<AllServiceproviderResponse> response = restTemplate.exchange(
+            ResponseEntity<AllServiceproviderResponse> response = conditionalGetClient.get(
                 url,
-                HttpMethod.GET,
-                entity,
+                headers,
                 AllServiceproviderResponse.class
             );
 
@@ -0,0 +1,155 @@
+package com.example.admin_service.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of verified JWTs, keyed by the SHA-256 of the token. Each entry holds the parsed claims and the
+ * resolved principal and lives until the token's "exp" (capped by security.jwt.cache.max-ttl-seconds),
+ * so a repeat request costs one hash and one lookup instead of a parse, a signature check and a query.
+ */
+@Service
+@Slf4j
+public class TokenAuthenticationCache {
+
+    private final JWTService jwtService;
+    private final ServiceProviderUserDetailsService userDetailsService;
+    private final Cache<String, VerifiedToken> cache;
+
+    public TokenAuthenticationCache(JWTService jwtService,
+                                    ServiceProviderUserDetailsService userDetailsService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${security.jwt.cache.max-size:10000}") long maxSize,
+                                    @Value("${security.jwt.cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+
+        long maxTtlNanos = Duration.ofSeconds(maxTtlSeconds).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(token.expiresAtMillis - System.currentTimeMillis());
+                        return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtTokens");
+    }
+
+    /**
+     * Resolve the principal for a bearer token, or null if the token is invalid, expired or its user is unknown,
+     * disabled or locked
+     */
+    public UserDetails authenticate(String token) {
+        String key = hash(token);
+
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis > System.currentTimeMillis()) {
+                return cached.principal;
+            }
+            cache.invalidate(key);
+            return null;
+        }
+
+        Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected JWT: {}", e.getMessage());
+            return null;
+        }
+
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            return null;
+        }
+
+        UserDetails principal;
+        try {
+            principal = userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            log.debug("JWT subject not found: {}", claims.getSubject());
+            return null;
+        }
+
+        if (!jwtService.isTokenValid(claims, principal)) {
+            return null;
+        }
+        // Deactivated or locked admins are neither authenticated nor cached
+        if (!principal.isEnabled() || !principal.isAccountNonLocked()) {
+            log.debug("JWT subject is disabled or locked: {}", claims.getSubject());
+            return null;
+        }
+
+        cache.put(key, new VerifiedToken(claims, principal, claims.getExpiration().getTime()));
+        return principal;
+    }
+
+    /**
+     * Drop every cached token of a user, e.g. after the admin was activated or deactivated
+     */
+    public void invalidateUser(String username) {
+        cache.asMap().values().removeIf(token -> token.principal.getUsername().equals(username));
+    }
+
+    /**
+     * Drop all cached tokens
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * A token that passed signature and expiry checks, with its resolved principal
+     */
+    private static class VerifiedToken {
+        private final Claims claims;
+        private final UserDetails principal;
+        private final long expiresAtMillis;
+
+        private VerifiedToken(Claims claims, UserDetails principal, long expiresAtMillis) {
+            this.claims = claims;
+            this.principal = principal;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -2,18 +2,24 @@ package com.example.admin_service.services;
 
 import com.example.admin_service.dto.AddPointsDTO;
 import com.example.admin_service.dto.DeductPointsDTO;
+import com.example.admin_service.dto.LeaderboardEntryDTO;
+import com.example.admin_service.dto.PointsLedgerTotals;
 import com.example.admin_service.dto.PointsStatisticsDTO;
 import com.example.admin_service.dto.TripFluencerPointsDTO;
+import com.example.admin_service.dto.UserProfileDTO;
+import com.example.admin_service.entity.PointsLedgerEntry;
 import com.example.admin_service.entity.TripFluencerPoints;
+import com.example.admin_service.exception.BadRequestException;
 import com.example.admin_service.repository.TripFluencerPointsRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,20 +29,22 @@ public class TripFluencerPointsService {
 
     private final TripFluencerPointsRepository pointsRepository;
     private final PointSettingsService pointSettingsService;
-    private final RestTemplate restTemplate;
-
-    // User service URL - should be configured in application.properties
-    private static final String USER_SERVICE_URL = "http://localhost:8081/api/users";
+    private final UserServiceClient userServiceClient;
+    private final PointsLedgerService ledgerService;
+    private final PointsLeaderboard leaderboard;
 
     /**
      * Get all TripFluencer points
      */
     public List<TripFluencerPointsDTO> getAllTripFluencers(String token) {
-        List<TripFluencerPoints> allPoints = pointsRepository.findAllByIsActiveTrue();
-
-        return allPoints.stream()
-                .map(points -> convertToDTO(points, token))
+        List<TripFluencerPointsDTO> tripFluencers = pointsRepository.findAllByIsActiveTrue()
+                .stream()
+                .map(this::convertToDTO)
                 .collect(Collectors.toList());
+
+        applyLedgerTails(tripFluencers);
+        enrichWithUserDetails(tripFluencers, token);
+        return tripFluencers;
     }
 
     /**
@@ -62,10 +70,13 @@ public class TripFluencerPointsService {
                 .orElse(new TripFluencerPoints(userId, followers, totalLikes));
 
         points.setFollowers(followers);
-        points.setTotalLikes(totalLikes);
+        // The snapshot excludes likes still in the ledger tail, so store the total minus that tail
+        int tailLikes = points.getId() != null ? ledgerService.tailOf(points).getLikes().intValue() : 0;
+        points.setTotalLikes(totalLikes - tailLikes);
         points.updateTier();
 
         TripFluencerPoints saved = pointsRepository.save(points);
+        leaderboard.markChanged(userId);
         log.info("Created/Updated TripFluencer points for user: {}", userId);
 
         return convertToDTO(saved, null);
@@ -76,11 +87,11 @@ public class TripFluencerPointsService {
      */
     @Transactional
     public TripFluencerPointsDTO addPoints(AddPointsDTO dto, String token) {
-        TripFluencerPoints points = pointsRepository.findByUserId(dto.getUserId())
-                .orElseThrow(() -> new RuntimeException("TripFluencer not found for user: " + dto.getUserId()));
+        if (dto.getPoints() != null && dto.getPoints() > 0) {
+            ledgerService.credit(dto.getUserId(), dto.getPoints(), 0, dto.getReason(), PointsLedgerEntry.SOURCE_ADMIN_ADD);
+        }
 
-        points.addPoints(dto.getPoints());
-        TripFluencerPoints updated = pointsRepository.save(points);
+        TripFluencerPoints updated = findByUserId(dto.getUserId());
 
         log.info("Admin added {} points to user {}. Reason: {}",
                 dto.getPoints(), dto.getUserId(), dto.getReason());
@@ -93,16 +104,10 @@ public class TripFluencerPointsService {
      */
     @Transactional
     public TripFluencerPointsDTO deductPoints(DeductPointsDTO dto, String token) {
-        TripFluencerPoints points = pointsRepository.findByUserId(dto.getUserId())
-                .orElseThrow(() -> new RuntimeException("TripFluencer not found for user: " + dto.getUserId()));
+        ledgerService.debit(dto.getUserId(), dto.getPoints() != null ? dto.getPoints() : 0, dto.getReason(),
+                PointsLedgerEntry.SOURCE_ADMIN_DEDUCT, null, "deduct");
 
-        boolean success = points.deductPoints(dto.getPoints());
-        if (!success) {
-            throw new RuntimeException("Insufficient points. User has: " + points.getCurrentPoints() +
-                    ", trying to deduct: " + dto.getPoints());
-        }
-
-        TripFluencerPoints updated = pointsRepository.save(points);
+        TripFluencerPoints updated = findByUserId(dto.getUserId());
 
         log.info("Admin deducted {} points from user {}. Reason: {}",
                 dto.getPoints(), dto.getUserId(), dto.getReason());
@@ -115,33 +120,90 @@ public class TripFluencerPointsService {
      */
     @Transactional
     public TripFluencerPointsDTO awardPointsForLikes(Long userId, Integer newLikes, String token) {
-        TripFluencerPoints points = pointsRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("TripFluencer not found for user: " + userId));
-
         // Calculate points based on the new likes
         Integer pointsToAdd = pointSettingsService.calculatePointsFromLikes(newLikes);
 
         if (pointsToAdd > 0) {
-            points.addPoints(pointsToAdd);
-            points.setTotalLikes(points.getTotalLikes() + newLikes);
-            TripFluencerPoints updated = pointsRepository.save(points);
-
+            ledgerService.credit(userId, pointsToAdd, newLikes, newLikes + " likes", PointsLedgerEntry.SOURCE_LIKES);
             log.info("Awarded {} points to user {} for {} likes", pointsToAdd, userId, newLikes);
-            return convertToDTO(updated, token);
         }
 
-        return convertToDTO(points, token);
+        return convertToDTO(findByUserId(userId), token);
     }
 
     /**
      * Get top earners
      */
     public List<TripFluencerPointsDTO> getTopEarners(String token) {
-        return pointsRepository.findTopEarners()
+        List<Long> userIds = leaderboard.page(PointsLeaderboard.Metric.TOTAL_POINTS_EARNED, 0, 10)
+                .stream()
+                .map(LeaderboardEntryDTO::getUserId)
+                .collect(Collectors.toList());
+
+        Map<Long, TripFluencerPoints> rows = pointsRepository.findAllByUserIdIn(userIds)
                 .stream()
-                .map(points -> convertToDTO(points, token))
-                .limit(10)
+                .collect(Collectors.toMap(TripFluencerPoints::getUserId, Function.identity()));
+
+        List<TripFluencerPointsDTO> topEarners = userIds.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDTO)
                 .collect(Collectors.toList());
+
+        applyLedgerTails(topEarners);
+        enrichWithUserDetails(topEarners, token);
+        return topEarners;
+    }
+
+    /**
+     * Get one page of a leaderboard
+     */
+    public List<LeaderboardEntryDTO> getLeaderboard(String metric, int page, int size, String token) {
+        if (page < 0 || size <= 0 || size > 100) {
+            throw new BadRequestException("page must be >= 0 and size between 1 and 100");
+        }
+        if (page > Integer.MAX_VALUE / size) {
+            throw new BadRequestException("page is out of range");
+        }
+        List<LeaderboardEntryDTO> entries = leaderboard.page(parseMetric(metric), page * size, size);
+
+        if (token != null && !entries.isEmpty()) {
+            Map<Long, UserProfileDTO> profiles = userServiceClient.fetchUserProfiles(
+                    entries.stream().map(LeaderboardEntryDTO::getUserId).collect(Collectors.toList()),
+                    token
+            );
+            for (LeaderboardEntryDTO entry : entries) {
+                applyUserProfile(entry, profiles.get(entry.getUserId()));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Get the leaderboard position of a user, or null if the user is not an active TripFluencer
+     */
+    public LeaderboardEntryDTO getLeaderboardRank(String metric, Long userId, String token) {
+        LeaderboardEntryDTO entry = leaderboard.rankOf(parseMetric(metric), userId);
+
+        if (entry != null && token != null) {
+            applyUserProfile(entry, userServiceClient.fetchUserProfile(userId, token));
+        }
+        return entry;
+    }
+
+    /**
+     * Number of TripFluencers on the leaderboards
+     */
+    public int getLeaderboardSize() {
+        return leaderboard.size();
+    }
+
+    private static PointsLeaderboard.Metric parseMetric(String metric) {
+        try {
+            return PointsLeaderboard.Metric.valueOf(metric.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown leaderboard metric: " + metric);
+        }
     }
 
     /**
@@ -151,12 +213,13 @@ public class TripFluencerPointsService {
         PointsStatisticsDTO stats = new PointsStatisticsDTO();
 
         Long activeCount = pointsRepository.countActiveTripFluencers();
-        Long totalEarned = pointsRepository.sumTotalPointsEarned();
+        Long snapshotEarned = pointsRepository.sumTotalPointsEarned();
+        long totalEarned = (snapshotEarned != null ? snapshotEarned : 0L) + ledgerService.earnedTailOfActive();
 
         stats.setActiveTripFluencers(activeCount != null ? activeCount : 0L);
-        stats.setTotalPointsEarned(totalEarned != null ? totalEarned : 0L);
+        stats.setTotalPointsEarned(totalEarned);
 
-        if (activeCount != null && activeCount > 0 && totalEarned != null) {
+        if (activeCount != null && activeCount > 0) {
             stats.setAveragePointsPerUser((int) (totalEarned / activeCount));
         } else {
             stats.setAveragePointsPerUser(0);
@@ -175,15 +238,54 @@ public class TripFluencerPointsService {
 
         points.setIsActive(!points.getIsActive());
         TripFluencerPoints updated = pointsRepository.save(points);
+        leaderboard.markChanged(userId);
 
         log.info("Toggled active status for user {}: {}", userId, updated.getIsActive());
         return convertToDTO(updated, token);
     }
 
+    private TripFluencerPoints findByUserId(Long userId) {
+        return pointsRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("TripFluencer not found for user: " + userId));
+    }
+
+    /**
+     * Resolve user details for a whole listing in one batch and merge them into the DTOs
+     */
+    private void enrichWithUserDetails(List<TripFluencerPointsDTO> dtos, String token) {
+        if (token == null || dtos.isEmpty()) {
+            return;
+        }
+
+        Map<Long, UserProfileDTO> profiles = userServiceClient.fetchUserProfiles(
+                dtos.stream().map(TripFluencerPointsDTO::getUserId).collect(Collectors.toList()),
+                token
+        );
+
+        for (TripFluencerPointsDTO dto : dtos) {
+            applyUserProfile(dto, profiles.get(dto.getUserId()));
+        }
+    }
+
     /**
      * Convert entity to DTO and fetch user details
      */
     private TripFluencerPointsDTO convertToDTO(TripFluencerPoints entity, String token) {
+        TripFluencerPointsDTO dto = convertToDTO(entity);
+        applyLedgerTail(dto, ledgerService.tailOf(entity));
+
+        // Fetch user details from user service if token is provided
+        if (token != null) {
+            applyUserProfile(dto, userServiceClient.fetchUserProfile(entity.getUserId(), token));
+        }
+
+        return dto;
+    }
+
+    /**
+     * Convert entity to DTO without user details
+     */
+    private TripFluencerPointsDTO convertToDTO(TripFluencerPoints entity) {
         TripFluencerPointsDTO dto = new TripFluencerPointsDTO();
         dto.setId(entity.getId());
         dto.setUserId(entity.getUserId());
@@ -196,79 +298,42 @@ public class TripFluencerPointsService {
         dto.setIsActive(entity.getIsActive());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
-
-        // Fetch user details from user service if token is provided
-        if (token != null) {
-            try {
-                fetchUserDetails(dto, entity.getUserId(), token);
-            } catch (Exception e) {
-                log.warn("Failed to fetch user details for user {}: {}", entity.getUserId(), e.getMessage());
-                // Set default values
-                dto.setUserName("User " + entity.getUserId());
-                dto.setUserEmail("user" + entity.getUserId() + "@example.com");
-            }
-        }
-
         return dto;
     }
 
     /**
-     * Fetch user details from user service
+     * Bring snapshot balances up to date with the ledger entries written since, for a whole listing at once
      */
-    private void fetchUserDetails(TripFluencerPointsDTO dto, Long userId, String token) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + token);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<UserDetailsResponse> response = restTemplate.exchange(
-                    USER_SERVICE_URL + "/" + userId,
-                    HttpMethod.GET,
-                    entity,
-                    UserDetailsResponse.class
-            );
+    private void applyLedgerTails(List<TripFluencerPointsDTO> dtos) {
+        Map<Long, PointsLedgerTotals> tails = ledgerService.tailsOf(
+                dtos.stream().map(TripFluencerPointsDTO::getUserId).collect(Collectors.toList()));
 
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                UserDetailsResponse user = response.getBody();
-                dto.setUserName(user.getName());
-                dto.setUserEmail(user.getEmail());
-                dto.setProfileImage(user.getProfileImage());
-            }
-        } catch (Exception e) {
-            log.warn("Could not fetch user details: {}", e.getMessage());
+        for (TripFluencerPointsDTO dto : dtos) {
+            applyLedgerTail(dto, tails.get(dto.getUserId()));
         }
     }
 
-    /**
-     * Inner class for user details response
-     */
-    private static class UserDetailsResponse {
-        private String name;
-        private String email;
-        private String profileImage;
-
-        public String getName() {
-            return name;
-        }
-
-        public void setName(String name) {
-            this.name = name;
-        }
-
-        public String getEmail() {
-            return email;
-        }
-
-        public void setEmail(String email) {
-            this.email = email;
+    private void applyLedgerTail(TripFluencerPointsDTO dto, PointsLedgerTotals tail) {
+        if (tail != null) {
+            dto.setCurrentPoints(dto.getCurrentPoints() + tail.getDelta().intValue());
+            dto.setTotalPointsEarned(dto.getTotalPointsEarned() + tail.getEarned().intValue());
+            dto.setPointsUsed(dto.getPointsUsed() + tail.getUsed().intValue());
+            dto.setTotalLikes(dto.getTotalLikes() + tail.getLikes().intValue());
         }
+    }
 
-        public String getProfileImage() {
-            return profileImage;
+    private void applyUserProfile(TripFluencerPointsDTO dto, UserProfileDTO profile) {
+        if (profile != null) {
+            dto.setUserName(profile.getName());
+            dto.setUserEmail(profile.getEmail());
+            dto.setProfileImage(profile.getProfileImage());
         }
+    }
 
-        public void setProfileImage(String profileImage) {
-            this.profileImage = profileImage;
+    private void applyUserProfile(LeaderboardEntryDTO entry, UserProfileDTO profile) {
+        if (profile != null) {
+            entry.setUserName(profile.getName());
+            entry.setProfileImage(profile.getProfileImage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,221 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.config.OutboundExecutors;
+import com.example.admin_service.dto.UserProfileDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Shared client for the user service, used to enrich listings with user names, emails and profile images.
+ * Profiles are kept in a size-bounded, time-expiring cache; users the user service reports as missing (404)
+ * are cached for a shorter time, and concurrent misses for the same user share a single HTTP call.
+ */
+@Service
+@Slf4j
+public class UserServiceClient {
+
+    private final RestTemplate restTemplate;
+    private final ExecutorService lookupExecutor;
+    private final AsyncCache<Long, Optional<UserProfileDTO>> profileCache;
+    private final Timer batchTimer;
+    private final DistributionSummary batchLookups;
+    private final Counter failedLookups;
+
+    @Value("${userservice.api.url}")
+    private String userServiceUrl;
+
+    @Value("${userservice.lookup.timeout-ms:5000}")
+    private long batchTimeoutMs;
+
+    public UserServiceClient(@Qualifier("userServiceRestTemplate") RestTemplate restTemplate,
+                             MeterRegistry meterRegistry,
+                             OutboundExecutors outboundExecutors,
+                             @Value("${userservice.lookup.parallelism:8}") int parallelism,
+                             @Value("${userservice.cache.max-size:10000}") long cacheMaxSize,
+                             @Value("${userservice.cache.ttl-seconds:300}") long cacheTtlSeconds,
+                             @Value("${userservice.cache.negative-ttl-seconds:60}") long negativeTtlSeconds) {
+        this.restTemplate = restTemplate;
+
+        this.lookupExecutor = outboundExecutors.newBoundedExecutor("user-lookup-", parallelism);
+
+        long ttlNanos = Duration.ofSeconds(cacheTtlSeconds).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        this.profileCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<Long, Optional<UserProfileDTO>>() {
+                    @Override
+                    public long expireAfterCreate(Long userId, Optional<UserProfileDTO> profile, long currentTime) {
+                        return profile.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long userId, Optional<UserProfileDTO> profile,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(userId, profile, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long userId, Optional<UserProfileDTO> profile,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, profileCache.synchronous(), "userProfiles");
+
+        this.batchTimer = Timer.builder("userservice.batch.latency")
+                .description("Time taken to resolve one batch of user profiles")
+                .register(meterRegistry);
+        this.batchLookups = DistributionSummary.builder("userservice.batch.lookups")
+                .description("Number of user profile lookups per batch")
+                .register(meterRegistry);
+        this.failedLookups = Counter.builder("userservice.lookups.failed")
+                .description("User profile lookups that failed or timed out")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resolve the profiles of many users at once with bounded parallelism.
+     * Users whose lookup fails or does not finish within the batch timeout are absent from the result.
+     */
+    public Map<Long, UserProfileDTO> fetchUserProfiles(Collection<Long> userIds, String token) {
+        if (token == null || userIds == null || userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Set<Long> distinctIds = new LinkedHashSet<>(userIds);
+        distinctIds.remove(null);
+
+        long start = System.nanoTime();
+        Map<Long, CompletableFuture<Optional<UserProfileDTO>>> pending = new LinkedHashMap<>();
+        for (Long userId : distinctIds) {
+            pending.put(userId, lookup(userId, token));
+        }
+
+        try {
+            CompletableFuture.allOf(pending.values().toArray(new CompletableFuture[0]))
+                    .get(batchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("User profile batch timed out after {} ms", batchTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("User profile batch had failed lookups: {}", e.getMessage());
+        }
+
+        Map<Long, UserProfileDTO> profiles = new HashMap<>();
+        int failed = 0;
+        for (Map.Entry<Long, CompletableFuture<Optional<UserProfileDTO>>> entry : pending.entrySet()) {
+            CompletableFuture<Optional<UserProfileDTO>> future = entry.getValue();
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                future.join().ifPresent(profile -> profiles.put(entry.getKey(), profile));
+            } else {
+                failed++;
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        batchTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        batchLookups.record(distinctIds.size());
+        failedLookups.increment(failed);
+
+        log.info("Resolved {}/{} user profiles in {} ms",
+                profiles.size(), distinctIds.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+
+        return profiles;
+    }
+
+    /**
+     * Fetch a single user's profile, or null if the user does not exist or could not be fetched
+     */
+    public UserProfileDTO fetchUserProfile(Long userId, String token) {
+        if (token == null || userId == null) {
+            return null;
+        }
+
+        try {
+            return lookup(userId, token)
+                    .get(batchTimeoutMs, TimeUnit.MILLISECONDS)
+                    .orElse(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Could not fetch user details for user {}: {}", userId, e.getMessage());
+        }
+        failedLookups.increment();
+        return null;
+    }
+
+    /**
+     * Drop a cached profile, e.g. after the user changed their name or picture
+     */
+    public void evictUserProfile(Long userId) {
+        profileCache.synchronous().invalidate(userId);
+    }
+
+    /**
+     * Drop all cached profiles
+     */
+    public void evictAll() {
+        profileCache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Cached lookup; concurrent misses for the same user join the same in-flight request
+     */
+    private CompletableFuture<Optional<UserProfileDTO>> lookup(Long userId, String token) {
+        return profileCache.get(userId, (id, executor) ->
+                CompletableFuture.supplyAsync(() -> loadUserProfile(id, token), lookupExecutor));
+    }
+
+    /**
+     * Load a profile from the user service. A 404 yields an empty result that is cached as a negative entry;
+     * any other failure propagates so that nothing is cached for it.
+     */
+    private Optional<UserProfileDTO> loadUserProfile(Long userId, String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + token);
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+
+        try {
+            ResponseEntity<UserProfileDTO> response = restTemplate.exchange(
+                    userServiceUrl + "/" + userId,
+                    HttpMethod.GET,
+                    entity,
+                    UserProfileDTO.class
+            );
+
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                return Optional.of(response.getBody());
+            }
+            return Optional.empty();
+        } catch (HttpClientErrorException.NotFound e) {
+            log.debug("User {} not found in user service", userId);
+            return Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,19 @@
+-- Trigram indexes so that the admin commission search (LOWER(col) LIKE '%term%')
+-- and the ranked search mode can use index scans instead of scanning the table
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_commissions_service_provider_trgm
+    ON commissions USING gin (lower(service_provider) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_commissions_transaction_id_trgm
+    ON commissions USING gin (lower(transaction_id) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_commissions_business_reg_no_trgm
+    ON commissions USING gin (lower(business_reg_no) gin_trgm_ops);
+
+-- Prefix search on transaction IDs (CommissionRepository.searchByTransactionIdPrefix) compares and sorts
+-- lower(transaction_id) in the "C" collation. A btree in that collation serves both the LIKE 'abc%' range
+-- and the ORDER BY, so a page is read straight off the index; a text_pattern_ops index could only serve
+-- the LIKE, and the planner would prefer the trigram index plus a sort of every match.
+CREATE INDEX IF NOT EXISTS idx_commissions_transaction_id_prefix_c
+    ON commissions ((lower(transaction_id) COLLATE "C"), id);
@@ -0,0 +1,5 @@
+-- Partial index for the scheduled redemption expiry: only ACTIVE rows are indexed,
+-- so the index stays small while expired and cancelled redemptions accumulate
+CREATE INDEX IF NOT EXISTS idx_point_redemptions_active_expires_at
+    ON point_redemptions (expires_at)
+    WHERE status = 'ACTIVE';
@@ -0,0 +1,50 @@
+-- Indexes for the filters and orderings used by CommissionRepository, PointRedemptionRepository and
+-- TripFluencerPointsRepository. Each comment lists the repository methods the index serves.
+
+-- commissions ------------------------------------------------------------------------------------
+
+-- findPageByProviderTypeAfter, countByProviderType
+CREATE INDEX IF NOT EXISTS idx_commissions_provider_type_date_id
+    ON commissions (provider_type, date, id);
+
+-- findPageAfter (keyset on date DESC, id DESC), findPageByDateBetweenAfter, countByDateBetween,
+-- sumByProviderType with a date range
+CREATE INDEX IF NOT EXISTS idx_commissions_date_id
+    ON commissions (date, id);
+
+-- findPageByMonthAfter, countByMonth, sumByProviderType for a month
+CREATE INDEX IF NOT EXISTS idx_commissions_month_date_id
+    ON commissions (month, date, id);
+
+-- findPageByServiceProviderAfter, countByServiceProvider
+CREATE INDEX IF NOT EXISTS idx_commissions_service_provider_date_id
+    ON commissions (service_provider, date, id);
+
+-- point_redemptions ------------------------------------------------------------------------------
+
+-- findByUserIdOrderByRedeemedAtDesc, findByUserId
+CREATE INDEX IF NOT EXISTS idx_point_redemptions_user_id_redeemed_at
+    ON point_redemptions (user_id, redeemed_at);
+
+-- findByStatus (ACTIVE rows are also covered by idx_point_redemptions_active_expires_at)
+CREATE INDEX IF NOT EXISTS idx_point_redemptions_status
+    ON point_redemptions (status);
+
+-- findAllByOrderByRedeemedAtDesc
+CREATE INDEX IF NOT EXISTS idx_point_redemptions_redeemed_at
+    ON point_redemptions (redeemed_at);
+
+-- tripfluencer_points ----------------------------------------------------------------------------
+-- Listings only ever read active TripFluencers, so this is a partial index on is_active = true.
+-- The point counters (current_points, total_points_earned) are deliberately not indexed: the ledger snapshot
+-- and the balance updates rewrite them constantly, and an index on them would rule out HOT updates.
+-- Rankings by points are served by PointsLeaderboard.
+
+-- findAllByIsActiveTrue, countActiveTripFluencers, leaderboard rebuild (keyset on user_id)
+CREATE INDEX IF NOT EXISTS idx_tripfluencer_points_active_user_id
+    ON tripfluencer_points (user_id)
+    WHERE is_active = true;
+
+-- findAllByTier
+CREATE INDEX IF NOT EXISTS idx_tripfluencer_points_tier
+    ON tripfluencer_points (tier);
@@ -0,0 +1,35 @@
+-- Pooled id sequences for the entities that moved off IDENTITY (allocationSize = 50 in the entity
+-- mappings). Each nextval reserves a block of 50 ids that Hibernate hands out without further round trips,
+-- which lets it batch INSERTs (an IDENTITY id is only known after its own INSERT).
+--
+-- Hibernate (ddl-auto=update) creates the sequences starting at 1 before this runs; move each one past
+-- the ids already issued by the old identity columns.
+-- points_ledger and commission_rollups stay on IDENTITY (see PointsLedgerEntry and CommissionRollup).
+
+CREATE SEQUENCE IF NOT EXISTS admins_seq INCREMENT BY 50;
+SELECT setval('admins_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM admins));
+
+CREATE SEQUENCE IF NOT EXISTS commissions_seq INCREMENT BY 50;
+SELECT setval('commissions_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM commissions));
+
+CREATE SEQUENCE IF NOT EXISTS commission_settings_seq INCREMENT BY 50;
+SELECT setval('commission_settings_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM commission_settings));
+
+CREATE SEQUENCE IF NOT EXISTS point_redemptions_seq INCREMENT BY 50;
+SELECT setval('point_redemptions_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM point_redemptions));
+
+CREATE SEQUENCE IF NOT EXISTS point_settings_seq INCREMENT BY 50;
+SELECT setval('point_settings_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM point_settings));
+
+CREATE SEQUENCE IF NOT EXISTS subscription_plans_seq INCREMENT BY 50;
+SELECT setval('subscription_plans_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM subscription_plans));
+
+CREATE SEQUENCE IF NOT EXISTS tripfluencer_points_seq INCREMENT BY 50;
+SELECT setval('tripfluencer_points_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tripfluencer_points));
+
+-- Plain SQL inserts that leave the id to the column default take it from the same sequence: a raw nextval
+-- takes one whole block and uses its top id, so it never collides with ids Hibernate hands out from other
+-- blocks. CommissionImportService does not rely on it; it reserves blocks and uses every id in them.
+ALTER TABLE commissions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE commissions ALTER COLUMN id SET DEFAULT nextval('commissions_seq');
+ALTER SEQUENCE commissions_seq OWNED BY commissions.id;
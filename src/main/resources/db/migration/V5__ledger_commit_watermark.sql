@@ -0,0 +1,16 @@
+-- Points snapshots use a transaction id watermark (snapshot_xid): a snapshot holds exactly the ledger entries
+-- whose writing transaction (txid) is below its watermark. Entry ids follow insert order, not commit order,
+-- so an id position could pass over an entry of a transaction that was still open and lose it.
+-- Needs Postgres 13+ (pg_current_xact_id, pg_snapshot_xmin). Hibernate usually creates both columns first;
+-- the statements below only fill in what it left out.
+
+ALTER TABLE points_ledger
+    ADD COLUMN IF NOT EXISTS txid bigint NOT NULL DEFAULT (pg_current_xact_id()::text::bigint);
+ALTER TABLE points_ledger ALTER COLUMN txid SET DEFAULT (pg_current_xact_id()::text::bigint);
+
+ALTER TABLE tripfluencer_points ADD COLUMN IF NOT EXISTS snapshot_xid bigint NOT NULL DEFAULT 0;
+ALTER TABLE tripfluencer_points ALTER COLUMN snapshot_xid SET DEFAULT 0;
+
+-- Ledger tails (txid >= snapshot_xid) per user
+CREATE INDEX IF NOT EXISTS idx_points_ledger_user_id_txid
+    ON points_ledger (user_id, txid);
@@ -1,10 +1,8 @@
 package com.example.admin_service;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-class AdminServiceApplicationTests {
+class AdminServiceApplicationTests extends PostgresTestSupport {
 
     @Test
     void contextLoads() {
@@ -0,0 +1,51 @@
+package com.example.admin_service;
+
+import com.example.admin_service.entity.TripFluencerPoints;
+import com.example.admin_service.repository.TripFluencerPointsRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Base class for tests that need the real database: the application context runs against an embedded
+ * Postgres server (one per test JVM), with the schema built as on startup, by Hibernate and db/migration.
+ * No Docker needed; Postgres refuses to run as root, so run the build as a regular user.
+ */
+@SpringBootTest
+public abstract class PostgresTestSupport {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    @Autowired
+    private TripFluencerPointsRepository tripFluencerPointsRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    /**
+     * Register a TripFluencer with no points under a fresh user id, so tests sharing the database don't meet
+     */
+    protected long newTripFluencer() {
+        long userId = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE);
+        tripFluencerPointsRepository.save(new TripFluencerPoints(userId, 0, 0));
+        return userId;
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start embedded Postgres", e);
+        }
+    }
+}
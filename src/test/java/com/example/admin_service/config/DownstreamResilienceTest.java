@@ -0,0 +1,66 @@
+package com.example.admin_service.config;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A call holds its bulkhead permit until the response is closed, and a failed body read counts as a failure
+ */
+class DownstreamResilienceTest {
+
+    private final DownstreamResilience resilience = new DownstreamResilience(new MockEnvironment()
+            .withProperty("http.client.test.bulkhead.max-concurrent", "1")
+            .withProperty("http.client.test.circuit-breaker.minimum-calls", "1")
+            .withProperty("http.client.test.circuit-breaker.window-size", "1"),
+            new SimpleMeterRegistry());
+
+    private final ClientHttpRequestInterceptor interceptor = resilience.interceptorFor("test");
+
+    @Test
+    void permitIsHeldUntilTheResponseIsClosed() throws IOException {
+        ClientHttpResponse first = call(new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+
+        assertThatThrownBy(() -> call(new MockClientHttpResponse(new byte[0], HttpStatus.OK)))
+                .isInstanceOf(BulkheadFullException.class);
+
+        first.close();
+        call(new MockClientHttpResponse(new byte[0], HttpStatus.OK)).close();
+    }
+
+    @Test
+    void failedBodyReadsOpenTheBreaker() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+        ClientHttpResponse response = call(new MockClientHttpResponse(failing, HttpStatus.OK));
+
+        assertThatThrownBy(() -> response.getBody().read()).isInstanceOf(IOException.class);
+        response.close();
+
+        assertThatThrownBy(() -> call(new MockClientHttpResponse(new byte[0], HttpStatus.OK)))
+                .isInstanceOf(CallNotPermittedException.class);
+    }
+
+    private ClientHttpResponse call(ClientHttpResponse downstream) throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://test/"));
+        return interceptor.intercept(request, new byte[0], (r, b) -> downstream);
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.PostgresTestSupport;
+import com.example.admin_service.dto.CreateCommissionDTO;
+import com.example.admin_service.dto.LikeEventDTO;
+import com.example.admin_service.dto.UpdateCommissionSettingsDTO;
+import com.example.admin_service.dto.UpdatePointSettingsDTO;
+import com.example.admin_service.entity.Commission;
+import com.example.admin_service.entity.TripFluencerPoints;
+import com.example.admin_service.repository.PointSettingsRepository;
+import com.example.admin_service.repository.TripFluencerPointsRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Database round trips of the write paths, counted at the JDBC boundary (one per statement execution, batch
+ * execution or commit) with Hibernate JDBC batching on, as configured, and off (batch size 1 for the session).
+ * The counts are logged; benchmarks/batch_writes_round_trips.sql records them. Also checks that the V4 id
+ * sequences are in place before anything is written.
+ */
+@Slf4j
+class BatchWritesTest extends PostgresTestSupport {
+
+    private static final int UNBATCHED = 1;
+    private static final int BATCHED = 50;
+
+    private static final Set<String> EXECUTIONS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    // Only the test thread's round trips count, not those of scheduled jobs
+    private static volatile Thread counting;
+    private static final AtomicLong roundTrips = new AtomicLong();
+
+    @TestConfiguration
+    static class CountRoundTrips {
+
+        @Bean
+        static BeanPostProcessor roundTripCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? counting(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private CommissionService commissionService;
+
+    @Autowired
+    private CommissionSettingsService commissionSettingsService;
+
+    @Autowired
+    private PointSettingsService pointSettingsService;
+
+    @Autowired
+    private PointSettingsRepository pointSettingsRepository;
+
+    @Autowired
+    private TripFluencerPointsService pointsService;
+
+    @Autowired
+    private TripFluencerPointsRepository pointsRepository;
+
+    @Autowired
+    private LikeIngestionService likeIngestionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void idSequencesAreInPlaceBeforeTheFirstWrite() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT success FROM flyway_schema_history WHERE version = '4'", Boolean.class)).isTrue();
+
+        // The point and commission settings are seeded on startup, through the sequences
+        for (String table : List.of("admins", "commissions", "commission_settings", "point_redemptions",
+                "point_settings", "subscription_plans", "tripfluencer_points")) {
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT increment_by FROM pg_sequences WHERE sequencename = ?", Long.class, table + "_seq"))
+                    .as(table).isEqualTo(50);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COALESCE((SELECT last_value FROM pg_sequences WHERE sequencename = ?), 0) >= " +
+                            "COALESCE((SELECT MAX(id) FROM " + table + "), 0)", Boolean.class, table + "_seq"))
+                    .as(table).isTrue();
+        }
+        assertThat(pointSettingsRepository.count()).isPositive();
+
+        // Plain SQL inserts that leave out the id take it from the same sequence without colliding
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT column_default FROM information_schema.columns " +
+                        "WHERE table_name = 'commissions' AND column_name = 'id'", String.class))
+                .isEqualTo("nextval('commissions_seq'::regclass)");
+        Long first = commissionService.createCommission(commission()).getId();
+        Long imported = jdbcTemplate.queryForObject(
+                "INSERT INTO commissions (service_provider, provider_type, amount, percentage, date, transaction_id, " +
+                        "revenue) VALUES ('Import', 'HOTEL', 10, 10, CURRENT_DATE, ?, 100) RETURNING id",
+                Long.class, UUID.randomUUID().toString());
+        Long second = commissionService.createCommission(commission()).getId();
+        assertThat(List.of(first, imported, second)).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void batchingCutsRoundTripsWhereATransactionWritesManyRows() {
+        List<String> report = new ArrayList<>();
+
+        // One row per request, as through the API
+        long commissionUnbatched = 0;
+        long commissionBatched = 0;
+        for (int i = 0; i < 20; i++) {
+            commissionUnbatched += roundTrips(UNBATCHED, () -> commissionService.createCommission(commission()));
+            commissionBatched += roundTrips(BATCHED, () -> commissionService.createCommission(commission()));
+        }
+        report.add(line("createCommission, 20 requests", commissionUnbatched, commissionBatched));
+
+        List<UpdatePointSettingsDTO> tiers = pointSettingsRepository.findAllByOrderByMinLikesAsc().stream()
+                .map(settings -> {
+                    UpdatePointSettingsDTO dto = new UpdatePointSettingsDTO();
+                    dto.setTierName(settings.getTierName());
+                    dto.setPointsPerMilestone(settings.getPointsPerMilestone() + 1);
+                    return dto;
+                })
+                .toList();
+        long pointSettingsUnbatched = roundTrips(UNBATCHED, () -> pointSettingsService.bulkUpdateSettings(tiers));
+        tiers.forEach(dto -> dto.setPointsPerMilestone(dto.getPointsPerMilestone() + 1));
+        long pointSettingsBatched = roundTrips(BATCHED, () -> pointSettingsService.bulkUpdateSettings(tiers));
+        report.add(line("point settings bulkUpdateSettings, " + tiers.size() + " tiers",
+                pointSettingsUnbatched, pointSettingsBatched));
+
+        List<UpdateCommissionSettingsDTO> rates = new ArrayList<>();
+        for (Commission.ProviderType providerType : Commission.ProviderType.values()) {
+            UpdateCommissionSettingsDTO dto = new UpdateCommissionSettingsDTO();
+            dto.setProviderType(providerType);
+            dto.setCommissionRate(new BigDecimal("11.00"));
+            rates.add(dto);
+        }
+        long commissionSettingsUnbatched =
+                roundTrips(UNBATCHED, () -> commissionSettingsService.bulkUpdateSettings(rates));
+        rates.forEach(dto -> dto.setCommissionRate(new BigDecimal("12.00")));
+        long commissionSettingsBatched =
+                roundTrips(BATCHED, () -> commissionSettingsService.bulkUpdateSettings(rates));
+        report.add(line("commission settings bulkUpdateSettings, " + rates.size() + " types",
+                commissionSettingsUnbatched, commissionSettingsBatched));
+
+        // New TripFluencers registered together: pooled ids let Hibernate batch the INSERTs
+        long registerUnbatched = roundTrips(UNBATCHED, () -> pointsRepository.saveAll(newTripFluencers(100)));
+        long registerBatched = roundTrips(BATCHED, () -> pointsRepository.saveAll(newTripFluencers(100)));
+        report.add(line("tripfluencer_points saveAll, 100 rows", registerUnbatched, registerBatched));
+
+        // Points awarding: one request per like event, or the events of 100 users as one batch
+        List<Long> userIds = newTripFluencers(100).stream()
+                .map(points -> pointsRepository.save(points).getUserId())
+                .toList();
+        long awardOneByOne = roundTrips(() -> userIds.forEach(userId ->
+                pointsService.awardPointsForLikes(userId, 10, null)));
+        long awardBatched = roundTrips(() -> likeIngestionService.ingest(userIds.stream()
+                .map(userId -> {
+                    LikeEventDTO event = new LikeEventDTO();
+                    event.setUserId(userId);
+                    event.setNewLikes(10);
+                    return event;
+                })
+                .toList()));
+        report.add(line("points awarding, 100 users (awardPointsForLikes / like batch)", awardOneByOne, awardBatched));
+
+        log.info(String.format("%-66s %10s %10s", "Round trips", "unbatched", "batched"));
+        report.forEach(log::info);
+
+        // A single row per transaction gains nothing, and loses nothing: the id comes from a block of 50
+        assertThat(commissionBatched).isLessThanOrEqualTo(commissionUnbatched);
+        // One SELECT and one UPDATE batch, the commit, then the in-memory table is reloaded
+        assertThat(pointSettingsBatched).isEqualTo(4);
+        assertThat(commissionSettingsBatched).isEqualTo(4);
+        assertThat(pointSettingsUnbatched).isEqualTo(3 + tiers.size());
+        assertThat(commissionSettingsUnbatched).isEqualTo(3 + rates.size());
+        assertThat(registerBatched).isLessThan(registerUnbatched / 10);
+        assertThat(awardBatched).isLessThan(awardOneByOne / 10);
+    }
+
+    /**
+     * Round trips of the work, run in one transaction with the given Hibernate JDBC batch size
+     */
+    private long roundTrips(int jdbcBatchSize, Runnable work) {
+        return roundTrips(() -> transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            work.run();
+        }));
+    }
+
+    /**
+     * Round trips of the work, run as it is (in its own transactions)
+     */
+    private static long roundTrips(Runnable work) {
+        roundTrips.set(0);
+        counting = Thread.currentThread();
+        try {
+            work.run();
+        } finally {
+            counting = null;
+        }
+        return roundTrips.get();
+    }
+
+    private static String line(String operation, long unbatched, long batched) {
+        return String.format("%-66s %10d %10d", operation, unbatched, batched);
+    }
+
+    private static List<TripFluencerPoints> newTripFluencers(int count) {
+        List<TripFluencerPoints> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            created.add(new TripFluencerPoints(ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE), 0, 0));
+        }
+        return created;
+    }
+
+    private static CreateCommissionDTO commission() {
+        CreateCommissionDTO dto = new CreateCommissionDTO();
+        dto.setServiceProvider("Batch Hotel");
+        dto.setProviderType(Commission.ProviderType.HOTEL);
+        dto.setAmount(new BigDecimal("15.00"));
+        dto.setPercentage(new BigDecimal("10.00"));
+        dto.setDate(LocalDate.now());
+        dto.setTransactionId(UUID.randomUUID().toString());
+        dto.setRevenue(new BigDecimal("150.00"));
+        dto.setMonth(LocalDate.now().toString().substring(0, 7));
+        return dto;
+    }
+
+    private static DataSource counting(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, result) ->
+                method.getName().equals("getConnection") ? counting((Connection) result) : result);
+    }
+
+    private static Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (method, result) -> {
+            if (method.getName().equals("commit") || method.getName().equals("rollback")) {
+                countRoundTrip();
+            }
+            return result instanceof Statement statement ? counting(statement, method.getReturnType()) : result;
+        });
+    }
+
+    private static Object counting(Statement statement, Class<?> type) {
+        return proxy(type, statement, (method, result) -> {
+            if (EXECUTIONS.contains(method.getName())) {
+                countRoundTrip();
+            }
+            return result;
+        });
+    }
+
+    private static void countRoundTrip() {
+        if (Thread.currentThread() == counting) {
+            roundTrips.incrementAndGet();
+        }
+    }
+
+    @FunctionalInterface
+    private interface AfterCall {
+        Object apply(Method method, Object result) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, AfterCall afterCall) {
+        return (T) Proxy.newProxyInstance(BatchWritesTest.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    try {
+                        return afterCall.apply(method, method.invoke(target, args));
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
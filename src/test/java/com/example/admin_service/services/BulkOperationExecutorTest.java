@@ -0,0 +1,41 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.config.OutboundExecutors;
+import com.example.admin_service.dto.BulkItemResultDTO;
+import com.example.admin_service.dto.BulkOperationResultDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every distinct id is applied once and gets exactly one result
+ */
+class BulkOperationExecutorTest {
+
+    private final BulkOperationExecutor executor =
+            new BulkOperationExecutor(new OutboundExecutors(false), 4, 1000, 10_000);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void repeatedIdsAreAppliedAndReportedOnce() {
+        Map<Long, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+        BulkOperationResultDTO result = executor.execute(List.of(1L, 2L, 1L, 3L, 2L), "host",
+                id -> calls.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet(), count -> count == 1);
+
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThat(result.getSuccessful()).isEqualTo(3);
+        assertThat(result.getResults()).extracting(BulkItemResultDTO::getId).containsExactly(1L, 2L, 3L);
+        assertThat(calls.values()).allSatisfy(count -> assertThat(count).hasValue(1));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.admin_service.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Only commission.export.max-concurrent exports hold a slot (and a pooled connection) at once
+ */
+class CommissionExportServiceTest {
+
+    private final CommissionExportService service =
+            new CommissionExportService(mock(DataSource.class), new ObjectMapper(), 1000, 2, 60_000);
+
+    @Test
+    void slotsAreCappedAndReusable() {
+        assertThat(service.tryAcquireSlot()).isTrue();
+        assertThat(service.tryAcquireSlot()).isTrue();
+        assertThat(service.tryAcquireSlot()).isFalse();
+
+        service.releaseSlot();
+        assertThat(service.tryAcquireSlot()).isTrue();
+        assertThat(service.tryAcquireSlot()).isFalse();
+    }
+
+    @Test
+    void exportsHaveTheirOwnTimeout() {
+        assertThat(service.getTimeoutMs()).isEqualTo(60_000);
+    }
+}
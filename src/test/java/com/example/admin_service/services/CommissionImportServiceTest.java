@@ -0,0 +1,171 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.PostgresTestSupport;
+import com.example.admin_service.dto.CommissionImportResultDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports against the real schema, in chunks of three rows: what each input counts as, and what reaches
+ * commission_rollups
+ */
+class CommissionImportServiceTest extends PostgresTestSupport {
+
+    private static final int CHUNK_SIZE = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Validator validator;
+
+    private CommissionImportService importService;
+    private String provider;
+
+    @BeforeEach
+    void setUp() {
+        importService = new CommissionImportService(
+                jdbcTemplate, transactionTemplate, objectMapper, validator, CHUNK_SIZE);
+        provider = "import-" + UUID.randomUUID();
+    }
+
+    @Test
+    void reimportingAFileCountsEveryRowAsADuplicate() throws IOException {
+        String csv = "service_provider,provider_type,amount,percentage,date,transaction_id,revenue,month\n" +
+                row("a", "10.00", "100.00") + row("b", "20.00", "200.00") +
+                row("c", "30.00", "300.00") + row("d", "40.00", "400.00");
+
+        CommissionImportResultDTO first = importService.importCsv(stream(csv));
+        List<Map<String, Object>> rollups = rollups();
+        CommissionImportResultDTO second = importService.importCsv(stream(csv));
+
+        assertThat(first.getInserted()).isEqualTo(4);
+        assertThat(first.getDuplicates()).isZero();
+        assertThat(rollups).hasSize(1);
+        assertThat(rollups.get(0).get("transaction_count")).isEqualTo(4L);
+        assertThat(second.getReceived()).isEqualTo(4);
+        assertThat(second.getInserted()).isZero();
+        assertThat(second.getDuplicates()).isEqualTo(4);
+        assertThat(rollups()).isEqualTo(rollups);
+    }
+
+    @Test
+    void repeatedTransactionIdsWithinAChunkAreInsertedOnce() throws IOException {
+        String json = "[" + json("a", "10.00") + "," + json("a", "10.00") + "," + json("b", "20.00") + "]";
+
+        CommissionImportResultDTO result = importService.importJson(stream(json));
+
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getDuplicates()).isEqualTo(1);
+        assertThat(rollups()).singleElement()
+                .satisfies(rollup -> assertThat(rollup.get("transaction_count")).isEqualTo(2L));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM commissions WHERE service_provider = ?", Long.class, provider)).isEqualTo(2);
+    }
+
+    @Test
+    void camelCaseHeadersAreAccepted() throws IOException {
+        String csv = "serviceProvider,providerType,amount,percentage,date,transactionId,revenue,month\n" +
+                row("a", "10.00", "100.00") + row("b", "20.00", "200.00");
+
+        CommissionImportResultDTO result = importService.importCsv(stream(csv));
+
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getInvalid()).isZero();
+        assertThat(result.getErrors()).isEmpty();
+    }
+
+    @Test
+    void invalidRowsAreCountedAndSkipped() throws IOException {
+        String csv = "service_provider,provider_type,amount,percentage,date,transaction_id,revenue,month\n" +
+                row("a", "10.00", "100.00") +
+                provider + ",HOTEL,-5.00,10,2026-01-15," + provider + "-b,50.00,2026-01\n" +
+                provider + ",SPACESHIP,5.00,10,2026-01-15," + provider + "-c,50.00,2026-01\n" +
+                row("d", "40.00", "400.00");
+
+        CommissionImportResultDTO result = importService.importCsv(stream(csv));
+
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getInvalid()).isEqualTo(2);
+        assertThat(result.getErrors()).hasSize(2);
+        assertThat(result.getErrors().get(0)).startsWith("Row 2: ");
+        assertThat(result.getErrors().get(1)).isEqualTo("Row 3: Unknown provider type: SPACESHIP");
+    }
+
+    @Test
+    void malformedInputKeepsTheRowsBeforeIt() throws IOException {
+        String json = "[" + json("a", "10.00") + ", 7, " + json("b", "20.00") + ", {\"serviceProvider\": ";
+
+        CommissionImportResultDTO result = importService.importJson(stream(json));
+
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getInvalid()).isEqualTo(1);
+        assertThat(result.getErrors()).hasSize(2);
+        assertThat(result.getErrors().get(0)).isEqualTo("Row 2: not a JSON object");
+        assertThat(result.getErrors().get(1)).startsWith("Malformed input after row 4: ");
+        assertThat(rollups()).singleElement()
+                .satisfies(rollup -> assertThat(rollup.get("transaction_count")).isEqualTo(2L));
+    }
+
+    @Test
+    void idsAreTakenFromTheSequenceFiftyAtATime() throws IOException {
+        StringBuilder csv = new StringBuilder(
+                "service_provider,provider_type,amount,percentage,date,transaction_id,revenue,month\n");
+        for (int i = 0; i < 60; i++) {
+            csv.append(row("t" + i, "10.00", "100.00"));
+        }
+        importService = new CommissionImportService(jdbcTemplate, transactionTemplate, objectMapper, validator, 60);
+
+        long before = jdbcTemplate.queryForObject("SELECT nextval('commissions_seq')", Long.class);
+        CommissionImportResultDTO result = importService.importCsv(stream(csv.toString()));
+        long after = jdbcTemplate.queryForObject("SELECT nextval('commissions_seq')", Long.class);
+
+        assertThat(result.getInserted()).isEqualTo(60);
+        // Two blocks of 50 for the chunk, between the block taken before and the one taken after
+        assertThat(after - before).isEqualTo(150);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT id FROM commissions WHERE service_provider = ?", Long.class, provider))
+                .hasSize(60)
+                .allSatisfy(id -> assertThat(id).isGreaterThan(before).isLessThanOrEqualTo(after - 50));
+    }
+
+    private String row(String transaction, String amount, String revenue) {
+        return provider + ",HOTEL," + amount + ",10,2026-01-15," + provider + "-" + transaction + "," +
+                revenue + ",2026-01\n";
+    }
+
+    private String json(String transaction, String amount) {
+        return "{\"serviceProvider\":\"" + provider + "\",\"providerType\":\"HOTEL\",\"amount\":" + amount +
+                ",\"percentage\":10,\"date\":\"2026-01-15\",\"transactionId\":\"" + provider + "-" + transaction +
+                "\",\"revenue\":100.00,\"month\":\"2026-01\"}";
+    }
+
+    private List<Map<String, Object>> rollups() {
+        return jdbcTemplate.queryForList(
+                "SELECT month, provider_type, total_revenue, total_commissions, transaction_count " +
+                "FROM commission_rollups WHERE service_provider = ? ORDER BY month, provider_type", provider);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.exception.BadRequestException;
+import com.example.admin_service.repository.CommissionRepository;
+import com.example.admin_service.repository.CommissionRollupRepository;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Search input that would scan the whole table or overflow the next cursor is rejected before any query runs
+ */
+class CommissionServiceTest {
+
+    private final CommissionRepository commissionRepository = mock(CommissionRepository.class);
+
+    private final CommissionService service = new CommissionService(
+            commissionRepository, mock(CommissionRollupRepository.class), mock(CommissionRollupService.class));
+
+    @Test
+    void blankTermsAreRejectedForIndexedModes() {
+        for (CommissionService.SearchMode mode : new CommissionService.SearchMode[] {
+                CommissionService.SearchMode.RANKED, CommissionService.SearchMode.PREFIX}) {
+            assertThatThrownBy(() -> service.searchCommissionsPage("  ", mode, null, null, false))
+                    .isInstanceOf(BadRequestException.class);
+        }
+        verifyNoInteractions(commissionRepository);
+    }
+
+    @Test
+    void offsetsThatWouldOverflowTheNextCursorAreRejected() {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("offset:" + (Integer.MAX_VALUE - 1)).getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> service.searchCommissionsPage(
+                "txn", CommissionService.SearchMode.PREFIX, cursor, 200, false))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(commissionRepository);
+    }
+}
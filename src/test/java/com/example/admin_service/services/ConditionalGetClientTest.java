@@ -0,0 +1,67 @@
+package com.example.admin_service.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A body cached for one caller's token is never served to another caller, fresh or stale
+ */
+class ConditionalGetClientTest {
+
+    private static final String URL = "http://service-provider/promotions";
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+
+    private final ConditionalGetClient client =
+            new ConditionalGetClient(restTemplate, new SimpleMeterRegistry(), 100, 30, true);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void staleBodiesAreOnlyServedToTheCallerThatFetchedThem() {
+        when(restTemplate.exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)))
+                .thenReturn(ResponseEntity.ok("admin-a's view"))
+                .thenThrow(new ResourceAccessException("down"));
+
+        client.get(URL, bearer("token-a"), String.class);
+
+        assertThatThrownBy(() -> client.get(URL, bearer("token-b"), String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(client.get(URL, bearer("token-a"), String.class).getBody()).isEqualTo("admin-a's view");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invalidatedBodiesAreNotServedStale() {
+        when(restTemplate.exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)))
+                .thenReturn(ResponseEntity.ok("before the update"))
+                .thenThrow(new ResourceAccessException("down"));
+
+        client.get(URL, bearer("token-a"), String.class);
+        client.invalidate("http://service-provider/");
+
+        assertThatThrownBy(() -> client.get(URL, bearer("token-a"), String.class))
+                .isInstanceOf(ResourceAccessException.class);
+    }
+
+    private static HttpHeaders bearer(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return headers;
+    }
+}
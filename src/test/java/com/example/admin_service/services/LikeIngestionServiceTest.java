@@ -0,0 +1,84 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.PostgresTestSupport;
+import com.example.admin_service.dto.LikeBatchResultDTO;
+import com.example.admin_service.dto.LikeEventDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A batch must pay the same points as ingesting its events one at a time through awardPointsForLikes
+ */
+class LikeIngestionServiceTest extends PostgresTestSupport {
+
+    @Autowired
+    private LikeIngestionService likeIngestionService;
+
+    @Autowired
+    private TripFluencerPointsService pointsService;
+
+    @Autowired
+    private PointSettingsService pointSettingsService;
+
+    @Test
+    void coalescedEventsArePricedOneByOne() {
+        long batched = newTripFluencer();
+        long single = newTripFluencer();
+        // Each event is in the first tier; their sum is not
+        List<Integer> likes = List.of(600, 700, 5);
+
+        LikeBatchResultDTO result = likeIngestionService.ingest(likes.stream()
+                .map(newLikes -> event(batched, newLikes))
+                .toList());
+        for (int newLikes : likes) {
+            pointsService.awardPointsForLikes(single, newLikes, null);
+        }
+
+        int expected = likes.stream().mapToInt(pointSettingsService::calculatePointsFromLikes).sum();
+        assertThat(expected).isNotEqualTo(pointSettingsService.calculatePointsFromLikes(1305));
+        // The 5-like event is worth no points, so neither path records it
+        assertThat(result.getAccepted()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getPointsAwarded()).isEqualTo(expected);
+        assertThat(pointsService.getUserPoints(batched, null).getCurrentPoints())
+                .isEqualTo(pointsService.getUserPoints(single, null).getCurrentPoints())
+                .isEqualTo(expected);
+        assertThat(pointsService.getUserPoints(batched, null).getTotalLikes())
+                .isEqualTo(pointsService.getUserPoints(single, null).getTotalLikes());
+    }
+
+    @Test
+    void eventsForOtherUsersAreRejected() {
+        long userId = newTripFluencer();
+
+        LikeBatchResultDTO result = likeIngestionService.ingest(List.of(
+                event(userId, 600), event(-userId, 600), event(userId, 0)));
+
+        assertThat(result.getAccepted()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getUsersCredited()).isEqualTo(1);
+    }
+
+    @Test
+    void eventsWorthNoPointsAreNotRecorded() {
+        long userId = newTripFluencer();
+
+        LikeBatchResultDTO result = likeIngestionService.ingest(List.of(event(userId, 5), event(userId, 10)));
+
+        assertThat(result.getAccepted()).isZero();
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getUsersCredited()).isZero();
+        assertThat(pointsService.getUserPoints(userId, null).getTotalLikes()).isZero();
+    }
+
+    private static LikeEventDTO event(long userId, int newLikes) {
+        LikeEventDTO event = new LikeEventDTO();
+        event.setUserId(userId);
+        event.setNewLikes(newLikes);
+        return event;
+    }
+}
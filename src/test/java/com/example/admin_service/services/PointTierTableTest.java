@@ -0,0 +1,148 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.entity.PointSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PointTierTable must price likes exactly as the linear scan over the settings in minLikes order did
+ */
+class PointTierTableTest {
+
+    private static final List<PointSettings> DEFAULT_TIERS = List.of(
+            new PointSettings("tier1", 0, 1000, 10),
+            new PointSettings("tier2", 1001, 10000, 20),
+            new PointSettings("tier3", 10001, 100000, 30),
+            new PointSettings("tier4", 100001, 500000, 40),
+            new PointSettings("tier5", 500001, 1000000, 50));
+
+    @Test
+    void defaultTiers() {
+        PointTierTable table = PointTierTable.compile(DEFAULT_TIERS);
+
+        assertThat(table.pointsFor(0)).isZero();
+        assertThat(table.pointsFor(99)).isZero();
+        assertThat(table.pointsFor(100)).isEqualTo(10);
+        assertThat(table.pointsFor(1000)).isEqualTo(100);
+        assertThat(table.pointsFor(1001)).isEqualTo(20);
+        assertThat(table.pointsFor(10000)).isEqualTo(20);
+        assertThat(table.pointsFor(10001)).isEqualTo(30);
+        assertThat(table.pointsFor(1000000)).isEqualTo(50);
+        assertThat(table.pointsFor(1000001)).isEqualTo(50);
+        assertAgreesWithLinearScan(DEFAULT_TIERS, -5, 1_200_000, 97);
+    }
+
+    @Test
+    void likesInAGapFallBackToTheHighestTier() {
+        List<PointSettings> tiers = List.of(
+                new PointSettings("tier1", 0, 100, 10),
+                new PointSettings("tier2", 200, 300, 20),
+                new PointSettings("tier3", 400, 500, 30));
+        PointTierTable table = PointTierTable.compile(tiers);
+
+        assertThat(table.pointsFor(150)).isEqualTo(30);
+        assertThat(table.pointsFor(350)).isEqualTo(30);
+        assertThat(table.pointsFor(250)).isEqualTo(20);
+        assertAgreesWithLinearScan(tiers, -10, 600, 1);
+    }
+
+    @Test
+    void overlappingTiersResolveToTheFirstInMinLikesOrder() {
+        List<PointSettings> tiers = List.of(
+                new PointSettings("tier3", 150, 1000, 30),
+                new PointSettings("tier1", 0, 500, 10),
+                new PointSettings("tier2", 100, 200, 20));
+        PointTierTable table = PointTierTable.compile(tiers);
+
+        assertThat(table.pointsFor(180)).isEqualTo(10);
+        assertThat(table.pointsFor(600)).isEqualTo(30);
+        assertAgreesWithLinearScan(tiers, -10, 1100, 1);
+    }
+
+    @Test
+    void wideEarlyTierShadowsNarrowerLaterOnes() {
+        // The running maximum of maxLikes must carry tier1's reach past tiers that end sooner
+        List<PointSettings> tiers = List.of(
+                new PointSettings("tier1", 0, 1000, 10),
+                new PointSettings("tier2", 10, 20, 20),
+                new PointSettings("tier3", 30, 40, 30),
+                new PointSettings("tier4", 2000, 3000, 40));
+        PointTierTable table = PointTierTable.compile(tiers);
+
+        assertThat(table.pointsFor(500)).isEqualTo(50);
+        assertThat(table.pointsFor(35)).isZero();
+        assertThat(table.pointsFor(1500)).isEqualTo(40);
+        assertAgreesWithLinearScan(tiers, -10, 3100, 1);
+    }
+
+    @Test
+    void tiersSharingAMinimum() {
+        List<PointSettings> tiers = List.of(
+                new PointSettings("tier2", 100, 150, 20),
+                new PointSettings("tier3", 100, 300, 30),
+                new PointSettings("tier4", 100, 120, 40));
+        assertAgreesWithLinearScan(tiers, 0, 400, 1);
+    }
+
+    @Test
+    void noTiersAwardNothing() {
+        PointTierTable table = PointTierTable.compile(List.of());
+
+        assertThat(table.size()).isZero();
+        assertThat(table.pointsFor(0)).isZero();
+        assertThat(table.pointsFor(5000)).isZero();
+    }
+
+    @Test
+    void randomTiersAgreeWithLinearScan() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int round = 0; round < 500; round++) {
+            int count = random.nextInt(1, 8);
+            List<PointSettings> tiers = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int min = random.nextInt(0, 1000);
+                int max = min + random.nextInt(-50, 400);
+                tiers.add(new PointSettings("tier" + random.nextInt(1, 6), min, max, random.nextInt(1, 100)));
+            }
+            assertAgreesWithLinearScan(tiers, -10, 1500, 1);
+        }
+    }
+
+    private static void assertAgreesWithLinearScan(List<PointSettings> tiers, int from, int to, int step) {
+        PointTierTable table = PointTierTable.compile(tiers);
+        List<PointSettings> ordered = tiers.stream()
+                .sorted(Comparator.comparing(PointSettings::getMinLikes))
+                .toList();
+        for (int likes = from; likes <= to; likes += step) {
+            assertThat(table.pointsFor(likes))
+                    .as("%d likes with tiers %s", likes, describe(ordered))
+                    .isEqualTo(linearScan(ordered, likes));
+        }
+    }
+
+    // PointSettingsService.calculatePointsFromLikes before the tier table, over findAllByOrderByMinLikesAsc()
+    private static int linearScan(List<PointSettings> settings, int likes) {
+        for (PointSettings setting : settings) {
+            if (likes >= setting.getMinLikes() && likes <= setting.getMaxLikes()) {
+                if (setting.getTierName().equals("tier1")) {
+                    return (likes / 100) * setting.getPointsPerMilestone();
+                }
+                return setting.getPointsPerMilestone();
+            }
+        }
+        return settings.isEmpty() ? 0 : settings.get(settings.size() - 1).getPointsPerMilestone();
+    }
+
+    private static String describe(List<PointSettings> tiers) {
+        return tiers.stream()
+                .map(t -> t.getTierName() + "[" + t.getMinLikes() + "-" + t.getMaxLikes() + "]=" + t.getPointsPerMilestone())
+                .toList()
+                .toString();
+    }
+}
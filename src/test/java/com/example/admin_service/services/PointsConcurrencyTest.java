@@ -0,0 +1,176 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.PostgresTestSupport;
+import com.example.admin_service.dto.AddPointsDTO;
+import com.example.admin_service.dto.DeductPointsDTO;
+import com.example.admin_service.dto.PointRedemptionDTO;
+import com.example.admin_service.dto.RedeemPointsDTO;
+import com.example.admin_service.dto.TripFluencerPointsDTO;
+import com.example.admin_service.entity.TripFluencerPoints;
+import com.example.admin_service.repository.TripFluencerPointsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parallel writers against one TripFluencer through the credit, debit, redeem and cancel paths, with the
+ * snapshot job folding the ledger at the same time: every write must be accounted for exactly once
+ */
+class PointsConcurrencyTest extends PostgresTestSupport {
+
+    private static final int WRITERS = 500;
+    private static final int OPS_PER_WRITER = 2;
+
+    @Autowired
+    private TripFluencerPointsService pointsService;
+
+    @Autowired
+    private PointRedemptionService redemptionService;
+
+    @Autowired
+    private PointsLedgerService ledgerService;
+
+    @Autowired
+    private TripFluencerPointsRepository pointsRepository;
+
+    @Test
+    void noPointsAreLostUnderParallelWriters() throws Exception {
+        long userId = newTripFluencer();
+        int seed = WRITERS * OPS_PER_WRITER * 2;
+        pointsService.addPoints(add(userId, seed), null);
+
+        AtomicInteger cancelled = new AtomicInteger();
+        runInParallel(WRITERS, () -> {
+            for (int i = 0; i < OPS_PER_WRITER; i++) {
+                pointsService.addPoints(add(userId, 3), null);
+                pointsService.deductPoints(deduct(userId, 1), null);
+                PointRedemptionDTO redemption = redemptionService.redeemPoints(redeem(userId, 1));
+                if (i % 2 == 0) {
+                    redemptionService.cancelRedemption(redemption.getId(), null);
+                    cancelled.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        int writes = WRITERS * OPS_PER_WRITER;
+        int refunds = cancelled.get();
+        int expectedCurrent = seed + 3 * writes - writes - writes + refunds;
+        int expectedEarned = seed + 3 * writes + refunds;
+        int expectedUsed = writes + writes - refunds;
+
+        assertBalance(pointsService.getUserPoints(userId, null), expectedCurrent, expectedEarned, expectedUsed);
+
+        ledgerService.takeSnapshots();
+        TripFluencerPoints snapshot = pointsRepository.findByUserId(userId).orElseThrow();
+        assertThat(snapshot.getCurrentPoints()).isEqualTo(expectedCurrent);
+        assertThat(snapshot.getTotalPointsEarned()).isEqualTo(expectedEarned);
+        assertThat(snapshot.getPointsUsed()).isEqualTo(expectedUsed);
+    }
+
+    @Test
+    void parallelDebitsNeverOverdraw() throws Exception {
+        long userId = newTripFluencer();
+        int balance = 200;
+        pointsService.addPoints(add(userId, balance), null);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        runInParallel(WRITERS, () -> {
+            for (int i = 0; i < OPS_PER_WRITER; i++) {
+                try {
+                    if (i % 2 == 0) {
+                        pointsService.deductPoints(deduct(userId, 1), null);
+                    } else {
+                        redemptionService.redeemPoints(redeem(userId, 1));
+                    }
+                    succeeded.incrementAndGet();
+                } catch (RuntimeException e) {
+                    assertThat(e.getMessage()).startsWith("Insufficient points");
+                    refused.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertThat(succeeded.get()).isEqualTo(balance);
+        assertThat(refused.get()).isEqualTo(WRITERS * OPS_PER_WRITER - balance);
+        assertBalance(pointsService.getUserPoints(userId, null), 0, balance, balance);
+    }
+
+    /**
+     * Start all writers at once and keep folding the ledger until they are done
+     */
+    private void runInParallel(int writers, Callable<Void> writer) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<Void>> futures = new ArrayList<>(writers);
+            for (int i = 0; i < writers; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return writer.call();
+                }));
+            }
+            Future<?> snapshots = pool.submit(() -> {
+                while (writing.get()) {
+                    ledgerService.takeSnapshots();
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+            writing.set(false);
+            snapshots.get(1, TimeUnit.MINUTES);
+        } finally {
+            writing.set(false);
+            pool.shutdownNow();
+        }
+    }
+
+    private static void assertBalance(TripFluencerPointsDTO points, int current, int earned, int used) {
+        assertThat(points.getCurrentPoints()).isEqualTo(current);
+        assertThat(points.getTotalPointsEarned()).isEqualTo(earned);
+        assertThat(points.getPointsUsed()).isEqualTo(used);
+    }
+
+    private static AddPointsDTO add(long userId, int points) {
+        AddPointsDTO dto = new AddPointsDTO();
+        dto.setUserId(userId);
+        dto.setPoints(points);
+        dto.setReason("concurrency test");
+        return dto;
+    }
+
+    private static DeductPointsDTO deduct(long userId, int points) {
+        DeductPointsDTO dto = new DeductPointsDTO();
+        dto.setUserId(userId);
+        dto.setPoints(points);
+        dto.setReason("concurrency test");
+        return dto;
+    }
+
+    private static RedeemPointsDTO redeem(long userId, int points) {
+        RedeemPointsDTO dto = new RedeemPointsDTO();
+        dto.setUserId(userId);
+        dto.setPointsToRedeem(points);
+        dto.setSubscriptionType("MONTHLY_PREMIUM");
+        return dto;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.dto.LeaderboardEntryDTO;
+import com.example.admin_service.dto.LeaderboardScores;
+import com.example.admin_service.repository.TripFluencerPointsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Leaderboard pages and ranks against a sorted copy of the scores, through rebuilds and incremental refreshes
+ */
+class PointsLeaderboardTest {
+
+    private record Scores(Long userId, Long earned, Long currentPoints, Long likes, Integer followers, String tier)
+            implements LeaderboardScores {
+
+        @Override
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public Long getEarned() {
+            return earned;
+        }
+
+        @Override
+        public Long getCurrentPoints() {
+            return currentPoints;
+        }
+
+        @Override
+        public Long getLikes() {
+            return likes;
+        }
+
+        @Override
+        public Integer getFollowers() {
+            return followers;
+        }
+
+        @Override
+        public String getTier() {
+            return tier;
+        }
+
+        long score(PointsLeaderboard.Metric metric) {
+            return switch (metric) {
+                case TOTAL_POINTS_EARNED -> earned;
+                case CURRENT_POINTS -> currentPoints;
+                case TOTAL_LIKES -> likes;
+                case TIER -> followers;
+            };
+        }
+    }
+
+    // The "database": active TripFluencers by user id
+    private final Map<Long, Scores> active = new TreeMap<>();
+    private final SplittableRandom random = new SplittableRandom(11);
+    private PointsLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        TripFluencerPointsRepository repository = mock(TripFluencerPointsRepository.class);
+        when(repository.findLeaderboardScoresAfter(anyLong(), anyInt())).thenAnswer(call -> {
+            long after = call.getArgument(0);
+            int limit = call.getArgument(1);
+            return active.values().stream()
+                    .filter(scores -> scores.userId() > after)
+                    .limit(limit)
+                    .map(LeaderboardScores.class::cast)
+                    .toList();
+        });
+        when(repository.findLeaderboardScores(anyCollection())).thenAnswer(call -> {
+            Collection<Long> userIds = call.getArgument(0);
+            return userIds.stream()
+                    .distinct()
+                    .map(active::get)
+                    .filter(scores -> scores != null)
+                    .map(LeaderboardScores.class::cast)
+                    .toList();
+        });
+
+        leaderboard = new PointsLeaderboard(repository);
+        // Several pages per rebuild
+        ReflectionTestUtils.setField(leaderboard, "rebuildPageSize", 7);
+    }
+
+    @Test
+    void matchesSortedScoresThroughRebuildsAndRefreshes() {
+        for (long userId = 1; userId <= 200; userId++) {
+            active.put(userId, randomScores(userId));
+        }
+        assertMatchesOracle();
+
+        for (int round = 0; round < 200; round++) {
+            List<Long> changed = new ArrayList<>();
+            for (int i = 0; i < random.nextInt(1, 15); i++) {
+                long userId = random.nextLong(1, 260);
+                int action = random.nextInt(3);
+                if (action == 0) {
+                    active.remove(userId);
+                } else {
+                    active.put(userId, randomScores(userId));
+                }
+                changed.add(userId);
+            }
+            leaderboard.markChanged(changed);
+            leaderboard.applyChanges();
+            assertMatchesOracle();
+
+            if (round % 50 == 49) {
+                leaderboard.rebuild();
+                assertMatchesOracle();
+            }
+        }
+    }
+
+    @Test
+    void pagesPastTheEndAreEmptyOrShort() {
+        for (long userId = 1; userId <= 10; userId++) {
+            active.put(userId, randomScores(userId));
+        }
+
+        assertThat(leaderboard.page(PointsLeaderboard.Metric.CURRENT_POINTS, 8, 5)).hasSize(2);
+        assertThat(leaderboard.page(PointsLeaderboard.Metric.CURRENT_POINTS, 10, 5)).isEmpty();
+        assertThat(leaderboard.page(PointsLeaderboard.Metric.CURRENT_POINTS, 1_000, 100)).isEmpty();
+        assertThat(leaderboard.page(PointsLeaderboard.Metric.CURRENT_POINTS, Integer.MAX_VALUE - 1, 100)).isEmpty();
+    }
+
+    @Test
+    void emptyLeaderboard() {
+        assertThat(leaderboard.size()).isZero();
+        assertThat(leaderboard.page(PointsLeaderboard.Metric.TIER, 0, 10)).isEmpty();
+        assertThat(leaderboard.rankOf(PointsLeaderboard.Metric.TIER, 1L)).isNull();
+    }
+
+    private Scores randomScores(long userId) {
+        // Narrow ranges, so that ties on score are common and resolved by user id
+        return new Scores(userId, (long) random.nextInt(0, 30), (long) random.nextInt(-5, 30),
+                (long) random.nextInt(0, 30), random.nextInt(0, 30), "tier" + random.nextInt(1, 6));
+    }
+
+    private void assertMatchesOracle() {
+        assertThat(leaderboard.size()).isEqualTo(active.size());
+        for (PointsLeaderboard.Metric metric : PointsLeaderboard.Metric.values()) {
+            List<Scores> sorted = active.values().stream()
+                    .sorted(Comparator.comparingLong((Scores scores) -> scores.score(metric)).reversed()
+                            .thenComparingLong(Scores::userId))
+                    .toList();
+
+            int size = 9;
+            for (int page = 0; page * size <= sorted.size() + size; page++) {
+                List<LeaderboardEntryDTO> entries = leaderboard.page(metric, page * size, size);
+                List<Scores> expected = sorted.subList(Math.min(page * size, sorted.size()),
+                        Math.min((page + 1) * size, sorted.size()));
+                assertThat(entries).hasSameSizeAs(expected);
+                for (int i = 0; i < entries.size(); i++) {
+                    LeaderboardEntryDTO entry = entries.get(i);
+                    assertThat(entry.getRank()).isEqualTo(page * size + i + 1L);
+                    assertThat(entry.getUserId()).isEqualTo(expected.get(i).userId());
+                    assertThat(entry.getScore()).isEqualTo(expected.get(i).score(metric));
+                    assertThat(entry.getTier()).isEqualTo(expected.get(i).tier());
+                }
+            }
+
+            for (int rank = 0; rank < sorted.size(); rank++) {
+                LeaderboardEntryDTO entry = leaderboard.rankOf(metric, sorted.get(rank).userId());
+                assertThat(entry.getRank()).isEqualTo(rank + 1L);
+            }
+            assertThat(leaderboard.rankOf(metric, 10_000L)).isNull();
+        }
+    }
+}
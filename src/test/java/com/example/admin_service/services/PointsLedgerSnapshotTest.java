@@ -0,0 +1,96 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.PostgresTestSupport;
+import com.example.admin_service.dto.TripFluencerPointsDTO;
+import com.example.admin_service.entity.TripFluencerPoints;
+import com.example.admin_service.repository.TripFluencerPointsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PointsLedgerSnapshotTest extends PostgresTestSupport {
+
+    @Autowired
+    private PointsLedgerService ledgerService;
+
+    @Autowired
+    private TripFluencerPointsService pointsService;
+
+    @Autowired
+    private TripFluencerPointsRepository pointsRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void entryOfATransactionOpenDuringASnapshotIsNotLost() throws SQLException {
+        long userId = newTripFluencer();
+
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+
+            // The first transaction takes the lower ledger id but commits last
+            long firstId = insertCredit(first, userId, 10);
+            long secondId = insertCredit(second, userId, 5);
+            assertThat(firstId).isLessThan(secondId);
+            second.commit();
+
+            ledgerService.takeSnapshots();
+            assertThat(balanceOf(userId).getCurrentPoints()).isEqualTo(5);
+
+            first.commit();
+        }
+
+        assertThat(balanceOf(userId).getCurrentPoints()).isEqualTo(15);
+
+        ledgerService.takeSnapshots();
+        TripFluencerPoints snapshot = pointsRepository.findByUserId(userId).orElseThrow();
+        assertThat(snapshot.getCurrentPoints()).isEqualTo(15);
+        assertThat(snapshot.getTotalPointsEarned()).isEqualTo(15);
+        assertThat(balanceOf(userId).getCurrentPoints()).isEqualTo(15);
+    }
+
+    @Test
+    void entryOfARolledBackTransactionIsNeverCounted() throws SQLException {
+        long userId = newTripFluencer();
+
+        try (Connection open = dataSource.getConnection()) {
+            open.setAutoCommit(false);
+            insertCredit(open, userId, 10);
+            ledgerService.credit(userId, 7, 0, "committed", "ADMIN_ADD");
+
+            ledgerService.takeSnapshots();
+            open.rollback();
+        }
+
+        ledgerService.takeSnapshots();
+        assertThat(pointsRepository.findByUserId(userId).orElseThrow().getCurrentPoints()).isEqualTo(7);
+        assertThat(balanceOf(userId).getCurrentPoints()).isEqualTo(7);
+    }
+
+    private TripFluencerPointsDTO balanceOf(long userId) {
+        return pointsService.getUserPoints(userId, null);
+    }
+
+    private static long insertCredit(Connection connection, long userId, int points) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO points_ledger (user_id, delta, earned_delta, used_delta, likes_delta, source, event_time) " +
+                "VALUES (?, ?, ?, 0, 0, 'ADMIN_ADD', now()) RETURNING id")) {
+            insert.setLong(1, userId);
+            insert.setInt(2, points);
+            insert.setInt(3, points);
+            try (ResultSet rs = insert.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
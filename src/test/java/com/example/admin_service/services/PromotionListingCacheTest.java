@@ -0,0 +1,61 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.config.OutboundExecutors;
+import com.example.admin_service.dto.PromotionResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listings are cached per caller, and a first load that races a mutation is not cached over it
+ */
+class PromotionListingCacheTest {
+
+    private final PromotionListingCache cache =
+            new PromotionListingCache(new SimpleMeterRegistry(), new OutboundExecutors(false), 15, 120);
+
+    @AfterEach
+    void shutdown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void listingsAreNotSharedBetweenCallers() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(PromotionListingCache.ALL, "token-a", () -> List.of(promotion(loads.incrementAndGet())));
+        List<PromotionResponseDTO> forB =
+                cache.get(PromotionListingCache.ALL, "token-b", () -> List.of(promotion(loads.incrementAndGet())));
+        List<PromotionResponseDTO> forA =
+                cache.get(PromotionListingCache.ALL, "token-a", () -> List.of(promotion(loads.incrementAndGet())));
+
+        assertThat(loads).hasValue(2);
+        assertThat(forB).extracting(PromotionResponseDTO::getId).containsExactly(2L);
+        assertThat(forA).extracting(PromotionResponseDTO::getId).containsExactly(1L);
+    }
+
+    @Test
+    void firstLoadRacingAMutationIsNotCached() {
+        List<PromotionResponseDTO> raced = cache.get(PromotionListingCache.ALL, "token-a", () -> {
+            // A delete lands while the first load is in flight
+            cache.remove(1L);
+            return List.of(promotion(1));
+        });
+        List<PromotionResponseDTO> next =
+                cache.get(PromotionListingCache.ALL, "token-a", () -> List.of(promotion(2)));
+
+        assertThat(raced).extracting(PromotionResponseDTO::getId).containsExactly(1L);
+        assertThat(next).extracting(PromotionResponseDTO::getId).containsExactly(2L);
+    }
+
+    private static PromotionResponseDTO promotion(long id) {
+        PromotionResponseDTO promotion = new PromotionResponseDTO();
+        promotion.setId(id);
+        return promotion;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.PostgresTestSupport;
+import com.example.admin_service.dto.QueryPlanDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The report explains the SQL each repository method really sends, for every query method
+ */
+class QueryPlanReportServiceTest extends PostgresTestSupport {
+
+    @Autowired
+    private QueryPlanReportService queryPlanReportService;
+
+    @Test
+    void everyRepositoryQueryIsCatalogued() {
+        assertThat(QueryPlanReportService.uncatalogued()).isEmpty();
+    }
+
+    @Test
+    void everyQueryIsExplainedFromItsGeneratedSql() throws Exception {
+        List<QueryPlanDTO> report = queryPlanReportService.explainRepositoryQueries();
+
+        assertThat(report).allSatisfy(plan -> {
+            assertThat(plan.getError()).as(plan.getQuery()).isNull();
+            assertThat(plan.getSql()).as(plan.getQuery()).isNotBlank();
+            assertThat(plan.getRootNode()).as(plan.getQuery()).isNotBlank();
+        });
+
+        Map<String, String> sql = report.stream()
+                .collect(Collectors.toMap(QueryPlanDTO::getQuery, plan -> plan.getSql().toLowerCase()));
+        Function<String, String> of = name -> sql.get(name);
+
+        assertThat(of.apply("CommissionRepository.searchRanked")).contains("order by greatest(");
+        assertThat(of.apply("CommissionRepository.sumByProviderType")).contains("is null");
+        assertThat(of.apply("TripFluencerPointsRepository.findLeaderboardScoresAfter"))
+                .contains("left join points_ledger").contains("group by");
+        assertThat(of.apply("CommissionRepository.findPageAfter")).containsAnyOf("limit", "fetch first");
+        // Unbounded in the repository, so unbounded in the report
+        assertThat(of.apply("PointRedemptionRepository.findAllByOrderByRedeemedAtDesc"))
+                .doesNotContain("limit", "fetch first");
+    }
+}
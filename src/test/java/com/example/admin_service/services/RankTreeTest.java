@@ -0,0 +1,92 @@
+package com.example.admin_service.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Random inserts and removals against a sorted list: score descending, then user id ascending
+ */
+class RankTreeTest {
+
+    private record Ranked(long score, long userId) {
+    }
+
+    private static final Comparator<Ranked> ORDER = Comparator.comparingLong(Ranked::score).reversed()
+            .thenComparingLong(Ranked::userId);
+
+    @Test
+    void matchesSortedListUnderRandomInsertsAndRemovals() {
+        SplittableRandom random = new SplittableRandom(7);
+        RankTree tree = new RankTree();
+        List<Ranked> oracle = new ArrayList<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            if (oracle.isEmpty() || random.nextInt(3) > 0) {
+                // Few distinct scores, so most entries tie on score and are ordered by user id
+                Ranked entry = new Ranked(random.nextInt(-3, 20), random.nextLong(1, 5_000));
+                if (insertionPoint(oracle, entry) >= 0) {
+                    continue;
+                }
+                tree.insert(entry.score(), entry.userId());
+                oracle.add(-insertionPoint(oracle, entry) - 1, entry);
+            } else {
+                Ranked entry = oracle.remove(random.nextInt(oracle.size()));
+                tree.remove(entry.score(), entry.userId());
+            }
+
+            if (step % 500 == 0) {
+                assertSameOrder(tree, oracle);
+            }
+            Ranked probe = new Ranked(random.nextInt(-5, 22), random.nextLong(0, 5_001));
+            int expectedAhead = insertionPoint(oracle, probe);
+            assertThat(tree.countAhead(probe.score(), probe.userId()))
+                    .isEqualTo(expectedAhead >= 0 ? expectedAhead : -expectedAhead - 1);
+        }
+        assertSameOrder(tree, oracle);
+    }
+
+    @Test
+    void removingAbsentEntryChangesNothing() {
+        RankTree tree = new RankTree();
+        tree.insert(10, 1);
+        tree.insert(10, 2);
+
+        tree.remove(10, 3);
+        tree.remove(11, 1);
+
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(tree.userIdAt(0)).isEqualTo(1);
+        assertThat(tree.userIdAt(1)).isEqualTo(2);
+    }
+
+    @Test
+    void rankOutsideTreeIsRejected() {
+        RankTree tree = new RankTree();
+        tree.insert(5, 1);
+
+        assertThatThrownBy(() -> tree.userIdAt(1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> tree.scoreAt(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    private static void assertSameOrder(RankTree tree, List<Ranked> oracle) {
+        assertThat(tree.size()).isEqualTo(oracle.size());
+        for (int rank = 0; rank < oracle.size(); rank++) {
+            Ranked expected = oracle.get(rank);
+            assertThat(tree.userIdAt(rank)).isEqualTo(expected.userId());
+            assertThat(tree.scoreAt(rank)).isEqualTo(expected.score());
+            assertThat(tree.countAhead(expected.score(), expected.userId())).isEqualTo(rank);
+        }
+    }
+
+    private static int insertionPoint(List<Ranked> oracle, Ranked entry) {
+        return Collections.binarySearch(oracle, entry, ORDER);
+    }
+}
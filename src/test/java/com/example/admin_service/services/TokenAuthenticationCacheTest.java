@@ -0,0 +1,54 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.entity.Admin;
+import com.example.admin_service.entity.AdminPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A valid token of a deactivated admin does not authenticate, and is not cached as if it did
+ */
+class TokenAuthenticationCacheTest {
+
+    private final JWTService jwtService = new JWTService();
+    private final ServiceProviderUserDetailsService userDetailsService = mock(ServiceProviderUserDetailsService.class);
+    private final TokenAuthenticationCache cache =
+            new TokenAuthenticationCache(jwtService, userDetailsService, new SimpleMeterRegistry(), 100, 300);
+
+    @Test
+    void activeAdminsAreAuthenticatedFromTheCache() {
+        AdminPrincipal principal = principal(true);
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(principal);
+        String token = jwtService.generateToken(principal);
+
+        assertThat(cache.authenticate(token)).isSameAs(principal);
+        assertThat(cache.authenticate(token)).isSameAs(principal);
+        verify(userDetailsService, times(1)).loadUserByUsername("admin");
+    }
+
+    @Test
+    void deactivatedAdminsAreRejectedAndNotCached() {
+        AdminPrincipal principal = principal(false);
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(principal);
+        String token = jwtService.generateToken(principal);
+
+        assertThat(cache.authenticate(token)).isNull();
+        assertThat(cache.authenticate(token)).isNull();
+        verify(userDetailsService, times(2)).loadUserByUsername("admin");
+    }
+
+    private static AdminPrincipal principal(boolean active) {
+        Admin admin = new Admin();
+        admin.setUsername("admin");
+        admin.setEmail("admin@example.com");
+        admin.setPassword("secret");
+        admin.setIsActive(active);
+        return new AdminPrincipal(admin);
+    }
+}
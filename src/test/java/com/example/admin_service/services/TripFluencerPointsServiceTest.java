@@ -0,0 +1,51 @@
+package com.example.admin_service.services;
+
+import com.example.admin_service.exception.BadRequestException;
+import com.example.admin_service.repository.TripFluencerPointsRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Leaderboard paging arguments are validated before they reach the rankings
+ */
+class TripFluencerPointsServiceTest {
+
+    private final PointsLeaderboard leaderboard = mock(PointsLeaderboard.class);
+    private final TripFluencerPointsService service = new TripFluencerPointsService(
+            mock(TripFluencerPointsRepository.class), mock(PointSettingsService.class),
+            mock(UserServiceClient.class), mock(PointsLedgerService.class), leaderboard);
+
+    @Test
+    void pageWhoseOffsetOverflowsIsRejected() {
+        assertThatThrownBy(() -> service.getLeaderboard("current_points", Integer.MAX_VALUE / 100 + 1, 100, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.getLeaderboard("current_points", Integer.MAX_VALUE, 2, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void lastRepresentablePageIsPassedThrough() {
+        int page = Integer.MAX_VALUE / 100;
+        when(leaderboard.page(PointsLeaderboard.Metric.CURRENT_POINTS, page * 100, 100)).thenReturn(List.of());
+
+        assertThat(service.getLeaderboard("current_points", page, 100, null)).isEmpty();
+        verify(leaderboard).page(PointsLeaderboard.Metric.CURRENT_POINTS, page * 100, 100);
+    }
+
+    @Test
+    void invalidPagingIsRejected() {
+        assertThatThrownBy(() -> service.getLeaderboard("current_points", -1, 10, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.getLeaderboard("current_points", 0, 0, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.getLeaderboard("current_points", 0, 101, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+}